@@ -4,9 +4,16 @@ import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Cloudinary Configuration for Media Storage
@@ -29,6 +36,21 @@ public class CloudinaryConfig {
     @Value("${cloudinary.secure:true}")
     private boolean secure;
     
+    @Value("${media.upload.pool-size:8}")
+    private int uploadPoolSize;
+    
+    @Value("${media.upload.queue-capacity:100}")
+    private int uploadQueueCapacity;
+    
+    @Value("${media.ingestion.workers:4}")
+    private int ingestionWorkers;
+    
+    @Value("${media.ingestion.queue-capacity:100}")
+    private int ingestionQueueCapacity;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Bean
     public Cloudinary cloudinary() {
         try {
@@ -53,4 +75,52 @@ public class CloudinaryConfig {
             return null;
         }
     }
+    
+    /**
+     * Bounded executor for blocking storage calls (uploads and deletes), so they
+     * neither run on the request threads one by one nor on the common ForkJoinPool
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("media-upload-");
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        // When saturated the request thread uploads itself instead of failing the upload
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        
+        Gauge.builder("media.upload.queue.size", executor, CloudinaryConfig::queueSize)
+                .description("Media uploads waiting for an upload thread")
+                .register(meterRegistry);
+        Gauge.builder("media.upload.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Media uploads in progress")
+                .register(meterRegistry);
+        return executor;
+    }
+    
+    /**
+     * Workers that push staged uploads to storage. Jobs it has no room for are
+     * rejected and left in the database for the poller, never run on the caller.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaIngestionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("media-ingest-");
+        executor.setCorePoolSize(ingestionWorkers);
+        executor.setMaxPoolSize(ingestionWorkers);
+        executor.setQueueCapacity(ingestionQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+    
+    private static double queueSize(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0; // not initialized yet
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package com.votersystem.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Inbound channel interceptor that applies per-destination concurrency limits
+ * to @MessageMapping handlers and records their processing time.
+ * Only invocations of the annotation method handler are measured, so broker
+ * and user-destination handling of the same message is not counted twice.
+ */
+public class WebSocketChannelMonitor implements ExecutorChannelInterceptor {
+
+    // Cap on distinct destination tags, since clients choose the destination string
+    private static final int MAX_TAGGED_DESTINATIONS = 50;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> limits;
+
+    private final long acquireTimeoutMillis;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Invocation> currentInvocation = new ThreadLocal<>();
+
+    public WebSocketChannelMonitor(MeterRegistry meterRegistry, Map<String, Integer> destinationLimits,
+                                   long acquireTimeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.limits = new ConcurrentHashMap<>();
+        destinationLimits.forEach((destination, limit) -> limits.put(destination, new Semaphore(limit)));
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String destination = mappedDestination(message, handler);
+        if (destination == null) {
+            return message;
+        }
+
+        Semaphore limit = limits.get(destination);
+        if (limit != null) {
+            boolean acquired;
+            try {
+                acquired = limit.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                // Shed load for this destination rather than starving the others
+                rejections.computeIfAbsent(metricTag(destination), key -> Counter.builder("websocket.inbound.rejected")
+                        .description("Messages dropped because the destination concurrency limit was reached")
+                        .tag("destination", key)
+                        .register(meterRegistry)).increment();
+                return null;
+            }
+        }
+
+        currentInvocation.set(new Invocation(destination, limit, System.nanoTime()));
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                    Exception ex) {
+        if (!(handler instanceof SimpAnnotationMethodMessageHandler)) {
+            return;
+        }
+        Invocation invocation = currentInvocation.get();
+        if (invocation == null) {
+            return;
+        }
+        currentInvocation.remove();
+
+        if (invocation.limit != null) {
+            invocation.limit.release();
+        }
+        timers.computeIfAbsent(metricTag(invocation.destination), key -> Timer.builder("websocket.inbound.processing")
+                .description("Processing time of @MessageMapping handlers")
+                .tag("destination", key)
+                .register(meterRegistry))
+                .record(System.nanoTime() - invocation.startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String mappedDestination(Message<?> message, MessageHandler handler) {
+        if (!(handler instanceof SimpAnnotationMethodMessageHandler)) {
+            return null;
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        return destination != null && destination.startsWith("/app/") ? destination : null;
+    }
+
+    private String metricTag(String destination) {
+        return limits.containsKey(destination) || timers.containsKey(destination)
+                || timers.size() < MAX_TAGGED_DESTINATIONS ? destination : "other";
+    }
+
+    private static final class Invocation {
+        private final String destination;
+        private final Semaphore limit;
+        private final long startNanos;
+
+        private Invocation(String destination, Semaphore limit, long startNanos) {
+            this.destination = destination;
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -1,27 +1,45 @@
 package com.votersystem.config;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.messaging.tcp.TcpOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import com.votersystem.service.LocationBroadcastService;
 import com.votersystem.util.JwtUtil;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * WebSocket configuration for real-time agent tracking
  * Enables STOMP messaging with JWT authentication
@@ -29,15 +47,102 @@ import com.votersystem.util.JwtUtil;
 @Configuration
 @EnableWebSocketMessageBroker
 @Order(Ordered.HIGHEST_PRECEDENCE + 99)
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, SmartInitializingSingleton {
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${websocket.channel.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${websocket.channel.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.channel.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.channel.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.channel.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.channel.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.channel.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // Comma-separated destination:limit pairs, e.g. /app/location/update:64
+    @Value("${websocket.channel.destination-limits:}")
+    private String destinationLimits;
+
+    @Value("${websocket.channel.limit-wait-ms:100}")
+    private long limitWaitMillis;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Optional replacement for the reactor-netty TCP client of the relay (e.g. an in-process broker)
+    @Autowired(required = false)
+    @Qualifier("stompRelayTcpClient")
+    private TcpOperations<byte[]> relayTcpClient;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for topics
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // Relay to an external STOMP broker so several backend nodes share subscriptions.
+            // The default TCP client needs reactor-netty, which is only packaged with -Pstomp-relay.
+            // Note: RabbitMQ's STOMP adapter maps /topic/<name> to a routing key where "." is the
+            // separator; slash-separated names such as /topic/location/admin/{mobile}/batch only
+            // work with brokers that accept them (e.g. ActiveMQ Artemis) or with "." names there.
+            if (relayTcpClient == null
+                    && !ClassUtils.isPresent("reactor.netty.tcp.TcpClient", getClass().getClassLoader())) {
+                throw new IllegalStateException("websocket.broker.mode=relay requires reactor-netty-core on the " +
+                        "classpath: build with -Pstomp-relay (or set websocket.broker.mode=simple)");
+            }
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Resolve /user destinations for sessions connected to other nodes
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            if (relayTcpClient != null) {
+                relay.setTcpClient(relayTcpClient);
+            }
+            System.out.println("WebSocket broker: relaying to external STOMP broker at " + relayHost + ":" + relayPort);
+        } else {
+            // Enable simple broker for topics (single node only)
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
@@ -63,8 +168,81 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("https://api.expengo.com", "http://localhost:3000","http://localhost:5173");
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    /**
+     * Tune and instrument the channel executors Spring creates from the registrations,
+     * before the server starts accepting connections
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        customizeChannelExecutor("clientInboundChannelExecutor", "inbound");
+        customizeChannelExecutor("clientOutboundChannelExecutor", "outbound");
+    }
+
+    private void customizeChannelExecutor(String beanName, String channel) {
+        ThreadPoolTaskExecutor executor = applicationContext.getBean(beanName, ThreadPoolTaskExecutor.class);
+        ThreadPoolExecutor threadPool = executor.getThreadPoolExecutor();
+        threadPool.allowCoreThreadTimeOut(true);
+        // Apply back-pressure to the transport thread instead of dropping frames
+        threadPool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        if (virtualThreads) {
+            // Requires Java 21; pool sizes still bound how many messages run concurrently
+            threadPool.setThreadFactory(new VirtualThreadTaskExecutor(executor.getThreadNamePrefix())
+                    .getVirtualThreadFactory());
+        }
+
+        Gauge.builder("websocket.channel.queue.size", executor, WebSocketConfig::queueSize)
+                .description("Messages waiting in the channel executor queue")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Messages currently being processed")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    private static double queueSize(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0; // not initialized yet
+        }
+    }
+
+    private Map<String, Integer> parseDestinationLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        for (String entry : destinationLimits.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator > 0) {
+                limits.put(entry.substring(0, separator).trim(),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            }
+        }
+        return limits;
+    }
+
+    private Claims verifiedClaims(String token) {
+        try {
+            return jwtUtil.getVerifiedClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(new WebSocketChannelMonitor(meterRegistry, parseDestinationLimits(), limitWaitMillis));
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -78,11 +256,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         String token = authToken.substring(7);
                         
                         try {
-                            // Validate JWT token
-                            if (jwtUtil.validateToken(token)) {
-                                String username = jwtUtil.extractUsername(token);
-                                String userType = jwtUtil.extractUserType(token);
-                                String userId = jwtUtil.extractUserId(token); // Get actual agent ID
+                            // Validate JWT token once and read all claims from the result
+                            Claims claims = verifiedClaims(token);
+                            if (claims != null) {
+                                String username = claims.getSubject();
+                                String userType = claims.get("userType", String.class);
+                                String userId = claims.get("userId", String.class); // Get actual agent ID
 
                                 // Create authentication object
                                 List<SimpleGrantedAuthority> authorities = List.of(
@@ -113,6 +292,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         System.err.println("No Authorization header found for WebSocket connection");
                         return null; // Reject connection
                     }
+                } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+                    // Per-admin location topics are only visible to that admin and the master admin;
+                    // the all-agent topics only to the master admin
+                    String destination = accessor.getDestination();
+                    String username = (String) accessor.getSessionAttributes().get("username");
+                    String userType = (String) accessor.getSessionAttributes().get("userType");
+                    if (destination != null && !"MASTER".equals(userType)) {
+                        boolean allowed = true;
+                        if (destination.startsWith(LocationBroadcastService.ADMIN_TOPIC_PREFIX)) {
+                            String topicAdmin = destination.substring(LocationBroadcastService.ADMIN_TOPIC_PREFIX.length())
+                                    .split("/", 2)[0];
+                            allowed = topicAdmin.equals(username);
+                        } else if (destination.equals(LocationBroadcastService.MASTER_BATCH_TOPIC)
+                                || destination.equals(LocationBroadcastService.LEGACY_UPDATES_TOPIC)) {
+                            allowed = false;
+                        }
+                        if (!allowed) {
+                            System.err.println("Rejected subscription to " + destination + " by user: " + username);
+                            return null;
+                        }
+                    }
                 }
                 
                 return message;
@@ -1,5 +1,6 @@
 package com.votersystem.controller;
 
+import com.votersystem.dto.AgentSummaryResponse;
 import com.votersystem.dto.UpdateAgentInterfaceRequest;
 import com.votersystem.entity.Administrator;
 import com.votersystem.entity.Agent;
@@ -10,6 +11,7 @@ import com.votersystem.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -159,6 +161,29 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success(agents, "Agents retrieved successfully"));
     }
     
+    // Get agents as a paged, read-only listing sorted by payment totals
+    @GetMapping("/agents/summary")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MASTER')")
+    public ResponseEntity<ApiResponse<Page<AgentSummaryResponse>>> getAgentSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "totalPayments") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction,
+            HttpServletRequest request) {
+        String token = extractTokenFromRequest(request);
+        String username = jwtUtil.extractUsername(token);
+        String userType = jwtUtil.extractUserType(token);
+
+        try {
+            // Master admin sees all agents, sub-admin only their created agents
+            Page<AgentSummaryResponse> agents = agentService.getAgentSummaries(
+                    "MASTER".equals(userType) ? null : username, page, size, sortBy, direction);
+            return ResponseEntity.ok(ApiResponse.success(agents, "Agents retrieved successfully"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     // Get agent by ID
     @GetMapping("/agents/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MASTER')")
@@ -29,9 +29,11 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.votersystem.dto.CreateIssueRequest;
 import com.votersystem.dto.IssueResponse;
+import com.votersystem.dto.IssueUpdateFeedResponse;
 import com.votersystem.dto.ReopenIssueRequest;
 import com.votersystem.entity.Issue;
 import com.votersystem.service.IssueService;
+import com.votersystem.service.IssueUpdateService;
 import com.votersystem.util.ApiResponse;
 import com.votersystem.util.JwtUtil;
 
@@ -51,6 +53,9 @@ public class AgentIssueController {
     @Autowired
     private IssueService issueService;
 
+    @Autowired
+    private IssueUpdateService issueUpdateService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -408,7 +413,40 @@ public class AgentIssueController {
     }
 
     /**
-     * Get issue updates since timestamp (for polling)
+     * Get issue updates after a cursor (seq of the last update the client has seen).
+     * Updates are pushed live to /user/queue/issues; this endpoint only replays
+     * what a reconnecting client missed. Without a cursor it returns the latest
+     * cursor to start from after loading the issue list.
+     */
+    @GetMapping("/updates/feed")
+    @PreAuthorize("hasRole('AGENT')")
+    public ResponseEntity<ApiResponse<IssueUpdateFeedResponse>> getIssueUpdateFeed(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            HttpServletRequest request) {
+        try {
+            String agentId = getAgentIdFromToken(request);
+            if (agentId == null) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Unable to extract agent ID from token"));
+            }
+
+            IssueUpdateFeedResponse feed = cursor != null
+                    ? issueUpdateService.getUpdatesAfter(agentId, cursor, limit)
+                    : new IssueUpdateFeedResponse(List.of(), issueUpdateService.getLatestCursor(agentId), false, false);
+
+            return ResponseEntity.ok(ApiResponse.success(feed, "Issue updates retrieved successfully"));
+
+        } catch (Exception e) {
+            logger.error("Failed to get issue update feed: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to get issue updates: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get issue updates since timestamp (legacy polling; prefer /updates/feed
+     * together with the /user/queue/issues subscription)
      */
     @GetMapping("/updates")
     @PreAuthorize("hasRole('AGENT')")
@@ -4,6 +4,7 @@ import com.votersystem.entity.Issue;
 import com.votersystem.entity.IssueAttachment;
 import com.votersystem.service.IssueService;
 import com.votersystem.service.IssueAttachmentService;
+import com.votersystem.service.MediaIngestionService;
 import com.votersystem.service.MediaService;
 import com.votersystem.util.ApiResponse;
 import com.votersystem.util.JwtUtil;
@@ -40,6 +41,9 @@ public class IssueMediaController {
     @Autowired
     private MediaService mediaService;
 
+    @Autowired
+    private MediaIngestionService mediaIngestionService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -117,64 +121,54 @@ public class IssueMediaController {
     }
     
     /**
-     * Upload video attachment to issue
+     * Upload video attachment to issue.
+     * The video is staged on the server and returned as a PENDING attachment;
+     * it becomes READY once the background upload to storage has finished.
      */
     @PostMapping("/video")
     @PreAuthorize("hasRole('AGENT')")
-    public CompletableFuture<ResponseEntity<ApiResponse<IssueAttachment>>> uploadVideo(
+    public ResponseEntity<ApiResponse<IssueAttachment>> uploadVideo(
             @PathVariable Long issueId,
             @RequestParam("file") MultipartFile file,
             Authentication authentication,
             HttpServletRequest request) {
+        try {
+            String agentId = getAgentIdFromToken(request);
+            if (agentId == null) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Unable to extract agent ID from token"));
+            }
 
-        // Extract agent ID from JWT token before async call
-        String agentId = getAgentIdFromToken(request);
-        if (agentId == null) {
-            return CompletableFuture.completedFuture(
-                ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Unable to extract agent ID from token"))
-            );
-        }
+            // Validate issue exists and agent has access
+            Optional<Issue> issueOpt = issueService.getIssueById(issueId);
+            if (issueOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                
-                // Validate issue exists and agent has access
-                Optional<Issue> issueOpt = issueService.getIssueById(issueId);
-                if (issueOpt.isEmpty()) {
-                    return ResponseEntity.notFound().build();
-                }
-                
-                Issue issue = issueOpt.get();
-                if (!issue.getReportedBy().equals(agentId)) {
-                    return ResponseEntity.status(403)
-                            .body(ApiResponse.error("Access denied to this issue"));
-                }
-                
-                // Upload to Cloudinary
-                String folder = "issues/" + issue.getTicketNumber();
-                MediaService.MediaUploadResult uploadResult = mediaService.uploadVideo(file, folder).join();
-                
-                if (!uploadResult.isSuccess()) {
-                    return ResponseEntity.badRequest()
-                            .body(ApiResponse.error("Failed to upload video: " + uploadResult.getMessage()));
-                }
-                
-                // Save attachment record
-                IssueAttachment attachment = attachmentService.createAttachment(
-                        issue, file.getOriginalFilename(), uploadResult.getUrl(), 
-                        IssueAttachment.FileType.VIDEO, uploadResult.getPublicId(), 
-                        file.getSize(), file.getContentType(), agentId);
-                
-                logger.info("Agent {} uploaded video to issue {}", agentId, issue.getTicketNumber());
-                return ResponseEntity.ok(ApiResponse.success(attachment, "Video uploaded successfully"));
-                
-            } catch (Exception e) {
-                logger.error("Failed to upload video: {}", e.getMessage());
+            Issue issue = issueOpt.get();
+            if (!issue.getReportedBy().equals(agentId)) {
+                return ResponseEntity.status(403)
+                        .body(ApiResponse.error("Access denied to this issue"));
+            }
+
+            String error = mediaIngestionService.validationError(file, IssueAttachment.FileType.VIDEO);
+            if (error != null) {
                 return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Failed to upload video: " + e.getMessage()));
+                        .body(ApiResponse.error("Failed to upload video: " + error));
             }
-        });
+
+            // Stage locally; the upload to storage continues in the background
+            IssueAttachment attachment = mediaIngestionService.stage(
+                    issue, file, IssueAttachment.FileType.VIDEO, agentId);
+
+            logger.info("Agent {} staged video for issue {}", agentId, issue.getTicketNumber());
+            return ResponseEntity.accepted().body(ApiResponse.success(attachment, "Video accepted, upload in progress"));
+
+        } catch (Exception e) {
+            logger.error("Failed to upload video: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Failed to upload video: " + e.getMessage()));
+        }
     }
     
     /**
@@ -1,19 +1,26 @@
 package com.votersystem.controller;
 
 import java.security.Principal;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.votersystem.dto.AgentLocationResponse;
+import com.votersystem.entity.AgentLocation;
 import com.votersystem.service.AgentService;
 import com.votersystem.service.LocationTrackingService;
 import com.votersystem.util.ApiResponse;
@@ -182,6 +189,86 @@ public class LocationController {
         }
     }
 
+    /**
+     * Get the route of a specific agent for one day (defaults to today)
+     */
+    @GetMapping("/agent/{agentId}/history")
+    @PreAuthorize("hasRole('MASTER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<AgentLocation>>> getAgentLocationHistory(
+            @PathVariable String agentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            Authentication authentication) {
+        try {
+            // Sub-admins can only view agents they created
+            boolean isMaster = authentication.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_MASTER"));
+            if (!isMaster && !hasAccessToAgent(agentId, authentication.getName())) {
+                return ResponseEntity.status(403).body(
+                    ApiResponse.error("Access denied: You can only view locations of agents you created")
+                );
+            }
+
+            LocalDate day = date != null ? date : LocalDate.now();
+            List<AgentLocation> route = locationTrackingService.getAgentRoute(agentId, day);
+            return ResponseEntity.ok(ApiResponse.success(route, "Agent location history retrieved successfully"));
+        } catch (Exception e) {
+            System.err.println("Error getting agent location history: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(
+                ApiResponse.error("Failed to retrieve agent location history: " + e.getMessage())
+            );
+        }
+    }
+
+    /**
+     * Find agents near a point (latitude, longitude, radiusKm) or inside a bounding box
+     * (minLatitude, maxLatitude, minLongitude, maxLongitude). Sub-admins only see their own agents.
+     */
+    @GetMapping("/nearby")
+    @PreAuthorize("hasRole('MASTER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<AgentLocationResponse>>> getNearbyAgents(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Double minLatitude,
+            @RequestParam(required = false) Double maxLatitude,
+            @RequestParam(required = false) Double minLongitude,
+            @RequestParam(required = false) Double maxLongitude,
+            Authentication authentication) {
+        try {
+            boolean isMaster = authentication.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals("ROLE_MASTER"));
+            Set<String> allowedAgentIds = isMaster
+                    ? null
+                    : new HashSet<>(agentService.getAgentIdsByCreatedBy(authentication.getName()));
+
+            List<AgentLocationResponse> locations;
+            if (latitude != null && longitude != null && radiusKm != null) {
+                if (radiusKm <= 0) {
+                    return ResponseEntity.badRequest().body(ApiResponse.error("radiusKm must be greater than 0"));
+                }
+                locations = locationTrackingService.findAgentsNearby(latitude, longitude, radiusKm, allowedAgentIds);
+            } else if (minLatitude != null && maxLatitude != null && minLongitude != null && maxLongitude != null) {
+                if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+                    return ResponseEntity.badRequest().body(ApiResponse.error("Invalid bounding box"));
+                }
+                locations = locationTrackingService.findAgentsWithinBounds(
+                        minLatitude, maxLatitude, minLongitude, maxLongitude, allowedAgentIds);
+            } else {
+                return ResponseEntity.badRequest().body(ApiResponse.error(
+                        "Provide latitude, longitude and radiusKm, or minLatitude, maxLatitude, minLongitude and maxLongitude"));
+            }
+
+            return ResponseEntity.ok(ApiResponse.success(locations, "Nearby agents retrieved successfully"));
+        } catch (Exception e) {
+            System.err.println("Error finding nearby agents: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(
+                ApiResponse.error("Failed to find nearby agents: " + e.getMessage())
+            );
+        }
+    }
+
     /**
      * Get location statistics
      */
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Controller;
 
 import com.votersystem.dto.AgentLocationResponse;
 import com.votersystem.dto.LocationUpdateRequest;
+import com.votersystem.service.LocationBroadcastService;
 import com.votersystem.service.LocationTrackingService;
 
 /**
@@ -22,6 +23,9 @@ public class LocationWebSocketController {
     @Autowired
     private LocationTrackingService locationTrackingService;
 
+    @Autowired
+    private LocationBroadcastService locationBroadcastService;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
@@ -56,8 +60,8 @@ public class LocationWebSocketController {
             AgentLocationResponse response = locationTrackingService.updateAgentLocation(agentId, locationUpdate);
             
             if (response != null) {
-                // Broadcast location update to all admin subscribers
-                messagingTemplate.convertAndSend("/topic/location/updates", response);
+                // Broadcast location update to master and owning sub-admin topics
+                locationBroadcastService.publish(response);
                 
                 // Send confirmation back to agent
                 messagingTemplate.convertAndSendToUser(
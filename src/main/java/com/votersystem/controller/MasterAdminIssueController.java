@@ -27,10 +27,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.votersystem.dto.IssueResponse;
-import com.votersystem.entity.Agent;
 import com.votersystem.entity.Issue;
 import com.votersystem.entity.IssueComment;
-import com.votersystem.repository.AgentRepository;
 import com.votersystem.service.IssueCommentService;
 import com.votersystem.service.IssueService;
 import com.votersystem.util.ApiResponse;
@@ -52,9 +50,6 @@ public class MasterAdminIssueController {
 
     @Autowired
     private IssueCommentService issueCommentService;
-
-    @Autowired
-    private AgentRepository agentRepository;
     
     /**
      * Get all issues with filtering and pagination
@@ -83,19 +78,8 @@ public class MasterAdminIssueController {
             Page<Issue> issues = issueService.searchIssues(status, category, priority,
                                                           reportedBy, village, district, dateFrom, dateTo, searchTerm, pageable);
 
-            // Get all agents for agent name lookup
-            List<Agent> allAgents = agentRepository.findAll();
-
-            Page<IssueResponse> response = issues.map(issue -> {
-                // Find the agent for this issue
-                Agent agent = allAgents.stream()
-                    .filter(a -> a.getId().equals(issue.getReportedBy()) ||
-                               a.getMobile().equals(issue.getReportedBy()))
-                    .findFirst()
-                    .orElse(null);
-
-                return new IssueResponse(issue, agent);
-            });
+            // Agents of the page's issues only, in one query
+            Page<IssueResponse> response = issueService.toResponsesWithAgents(issues);
             
             logger.info("Master admin retrieved {} issues with filters", issues.getTotalElements());
             return ResponseEntity.ok(ApiResponse.success(response, "Issues retrieved successfully"));
@@ -114,18 +98,12 @@ public class MasterAdminIssueController {
     @PreAuthorize("hasRole('MASTER')")
     public ResponseEntity<ApiResponse<IssueResponse>> getIssueById(@PathVariable Long issueId) {
         try {
-            Optional<Issue> issueOpt = issueService.getIssueById(issueId);
-            if (issueOpt.isEmpty()) {
+            Optional<IssueResponse> responseOpt = issueService.getIssueResponseWithAgent(issueId);
+            if (responseOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
-            Issue issue = issueOpt.get();
-
-            // Find the agent for this issue
-            Agent agent = agentRepository.findById(issue.getReportedBy())
-                .orElse(agentRepository.findByMobile(issue.getReportedBy()).orElse(null));
-
-            IssueResponse response = new IssueResponse(issue, agent);
+            IssueResponse response = responseOpt.get();
             return ResponseEntity.ok(ApiResponse.success(response, "Issue retrieved successfully"));
             
         } catch (Exception e) {
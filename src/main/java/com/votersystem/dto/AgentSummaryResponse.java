@@ -0,0 +1,163 @@
+package com.votersystem.dto;
+
+import com.votersystem.entity.Agent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only agent row for admin listings (no credentials, no lazy state).
+ * Selected directly as a JPQL constructor projection.
+ */
+public class AgentSummaryResponse {
+    
+    private String id;
+    private String firstName;
+    private String lastName;
+    private String mobile;
+    private Agent.AgentStatus status;
+    private Integer interfaceStatus;
+    private Integer paymentsToday;
+    private Integer totalPayments;
+    private String lastLocation;
+    private Double latitude;
+    private Double longitude;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastUpdated;
+    
+    // Constructors
+    public AgentSummaryResponse() {}
+    
+    public AgentSummaryResponse(String id, String firstName, String lastName, String mobile,
+                                Agent.AgentStatus status, Integer interfaceStatus, Integer paymentsToday,
+                                Integer totalPayments, String lastLocation, Double latitude, Double longitude,
+                                String createdBy, LocalDateTime createdAt, LocalDateTime lastUpdated) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.mobile = mobile;
+        this.status = status;
+        this.interfaceStatus = interfaceStatus;
+        this.paymentsToday = paymentsToday;
+        this.totalPayments = totalPayments;
+        this.lastLocation = lastLocation;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.lastUpdated = lastUpdated;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+    
+    public String getMobile() {
+        return mobile;
+    }
+    
+    public void setMobile(String mobile) {
+        this.mobile = mobile;
+    }
+    
+    public Agent.AgentStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Agent.AgentStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getInterfaceStatus() {
+        return interfaceStatus;
+    }
+    
+    public void setInterfaceStatus(Integer interfaceStatus) {
+        this.interfaceStatus = interfaceStatus;
+    }
+    
+    public Integer getPaymentsToday() {
+        return paymentsToday;
+    }
+    
+    public void setPaymentsToday(Integer paymentsToday) {
+        this.paymentsToday = paymentsToday;
+    }
+    
+    public Integer getTotalPayments() {
+        return totalPayments;
+    }
+    
+    public void setTotalPayments(Integer totalPayments) {
+        this.totalPayments = totalPayments;
+    }
+    
+    public String getLastLocation() {
+        return lastLocation;
+    }
+    
+    public void setLastLocation(String lastLocation) {
+        this.lastLocation = lastLocation;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public String getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+    
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
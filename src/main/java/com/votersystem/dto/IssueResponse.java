@@ -246,6 +246,7 @@ public class IssueResponse {
         private Long fileSize;
         private String uploadedBy;
         private LocalDateTime uploadedAt;
+        private IssueAttachment.UploadStatus uploadStatus;
         
         public AttachmentResponse() {}
         
@@ -257,6 +258,7 @@ public class IssueResponse {
             this.fileSize = attachment.getFileSize();
             this.uploadedBy = attachment.getUploadedBy();
             this.uploadedAt = attachment.getUploadedAt();
+            this.uploadStatus = attachment.getUploadStatus();
         }
         
         // Getters and setters
@@ -280,6 +282,9 @@ public class IssueResponse {
         
         public LocalDateTime getUploadedAt() { return uploadedAt; }
         public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+        
+        public IssueAttachment.UploadStatus getUploadStatus() { return uploadStatus; }
+        public void setUploadStatus(IssueAttachment.UploadStatus uploadStatus) { this.uploadStatus = uploadStatus; }
     }
     
     public static class CommentResponse {
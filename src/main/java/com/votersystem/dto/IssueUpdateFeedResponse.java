@@ -0,0 +1,40 @@
+package com.votersystem.dto;
+
+import java.util.List;
+
+/**
+ * Issue updates after a client's cursor. cursor is the seq to resume from next
+ * time; resyncRequired means older updates were pruned, so the client should
+ * reload its issue list before continuing from cursor.
+ */
+public class IssueUpdateFeedResponse {
+    
+    private List<IssueUpdateMessage> updates;
+    private long cursor;
+    private boolean hasMore;
+    private boolean resyncRequired;
+    
+    // Constructors
+    public IssueUpdateFeedResponse() {}
+    
+    public IssueUpdateFeedResponse(List<IssueUpdateMessage> updates, long cursor, boolean hasMore,
+                                   boolean resyncRequired) {
+        this.updates = updates;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+        this.resyncRequired = resyncRequired;
+    }
+    
+    // Getters and Setters
+    public List<IssueUpdateMessage> getUpdates() { return updates; }
+    public void setUpdates(List<IssueUpdateMessage> updates) { this.updates = updates; }
+    
+    public long getCursor() { return cursor; }
+    public void setCursor(long cursor) { this.cursor = cursor; }
+    
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+    
+    public boolean isResyncRequired() { return resyncRequired; }
+    public void setResyncRequired(boolean resyncRequired) { this.resyncRequired = resyncRequired; }
+}
@@ -0,0 +1,74 @@
+package com.votersystem.dto;
+
+import com.votersystem.entity.Issue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Change to one of an agent's issues, pushed to /user/queue/issues and
+ * replayed from the update feed. seq is the resumable cursor: a per-agent
+ * number that increases with every recorded change, in commit order.
+ */
+public class IssueUpdateMessage {
+    
+    public enum UpdateType {
+        STATUS_CHANGED,
+        COMMENT_ADDED,
+        RESOLUTION_DATE_CHANGED
+    }
+    
+    private long seq;
+    private UpdateType type;
+    private Long issueId;
+    private String ticketNumber;
+    private Issue.IssueStatus status;
+    private LocalDate estimatedResolutionDate;
+    private LocalDate actualResolutionDate;
+    private String comment;
+    private String commenterName;
+    private LocalDateTime timestamp;
+    
+    // Constructors
+    public IssueUpdateMessage() {}
+    
+    public IssueUpdateMessage(UpdateType type, Issue issue) {
+        this.type = type;
+        this.issueId = issue.getId();
+        this.ticketNumber = issue.getTicketNumber();
+        this.status = issue.getStatus();
+        this.estimatedResolutionDate = issue.getEstimatedResolutionDate();
+        this.actualResolutionDate = issue.getActualResolutionDate();
+    }
+    
+    // Getters and Setters
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    
+    public UpdateType getType() { return type; }
+    public void setType(UpdateType type) { this.type = type; }
+    
+    public Long getIssueId() { return issueId; }
+    public void setIssueId(Long issueId) { this.issueId = issueId; }
+    
+    public String getTicketNumber() { return ticketNumber; }
+    public void setTicketNumber(String ticketNumber) { this.ticketNumber = ticketNumber; }
+    
+    public Issue.IssueStatus getStatus() { return status; }
+    public void setStatus(Issue.IssueStatus status) { this.status = status; }
+    
+    public LocalDate getEstimatedResolutionDate() { return estimatedResolutionDate; }
+    public void setEstimatedResolutionDate(LocalDate estimatedResolutionDate) { this.estimatedResolutionDate = estimatedResolutionDate; }
+    
+    public LocalDate getActualResolutionDate() { return actualResolutionDate; }
+    public void setActualResolutionDate(LocalDate actualResolutionDate) { this.actualResolutionDate = actualResolutionDate; }
+    
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+    
+    public String getCommenterName() { return commenterName; }
+    public void setCommenterName(String commenterName) { this.commenterName = commenterName; }
+    
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
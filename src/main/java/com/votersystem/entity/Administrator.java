@@ -54,6 +54,10 @@ public class Administrator implements UserDetails {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Written only by TokenRevocationService: tokens issued before this epoch millis are rejected
+    @Column(name = "tokens_revoked_before", insertable = false, updatable = false)
+    private Long tokensRevokedBefore;
     
     public Administrator() {}
     
@@ -196,6 +200,10 @@ public class Administrator implements UserDetails {
         this.createdAt = createdAt;
     }
     
+    public Long getTokensRevokedBefore() {
+        return tokensRevokedBefore;
+    }
+    
     // Helper methods
     public String getFullName() {
         return firstName + " " + lastName;
@@ -1,5 +1,6 @@
 package com.votersystem.entity;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,12 +11,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
 @Entity
-@Table(name = "agents")
+@Table(name = "agents", indexes = {
+    // Agent listings sorted by payment totals, overall and per sub-admin
+    @Index(name = "idx_agents_total_payments", columnList = "total_payments"),
+    @Index(name = "idx_agents_payments_today", columnList = "payments_today"),
+    @Index(name = "idx_agents_created_by_total_payments", columnList = "created_by, total_payments"),
+    @Index(name = "idx_agents_created_by_payments_today", columnList = "created_by, payments_today")
+})
 public class Agent {
     
     @Id
@@ -52,6 +60,11 @@ public class Agent {
     @Column(name = "total_payments", nullable = false)
     private Integer totalPayments = 0;
 
+    // Exact running total kept by AgentPaymentCounterService; total_payments is truncated from it
+    @Column(name = "total_payments_amount", insertable = false, updatable = false,
+            columnDefinition = "DECIMAL(16,2) NOT NULL DEFAULT 0")
+    private BigDecimal totalPaymentsAmount;
+
     @Column(name = "latitude")
     private Double latitude;
 
@@ -71,6 +84,10 @@ public class Agent {
     @UpdateTimestamp
     @Column(name = "last_updated", nullable = false)
     private LocalDateTime lastUpdated;
+
+    // Written only by TokenRevocationService: tokens issued before this epoch millis are rejected
+    @Column(name = "tokens_revoked_before", insertable = false, updatable = false)
+    private Long tokensRevokedBefore;
     
     // Constructors
     public Agent() {}
@@ -224,6 +241,14 @@ public class Agent {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public BigDecimal getTotalPaymentsAmount() {
+        return totalPaymentsAmount;
+    }
+
+    public Long getTokensRevokedBefore() {
+        return tokensRevokedBefore;
+    }
     
     // Helper methods
     public String getFullName() {
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -17,6 +18,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
@@ -27,7 +29,12 @@ import jakarta.validation.constraints.NotNull;
  * Represents issues reported by agents/leaders
  */
 @Entity
-@Table(name = "issues")
+@Table(name = "issues", indexes = {
+    // Issues submitted within a [start, end) window (today, this month)
+    @Index(name = "idx_issues_submission_date", columnList = "submission_date"),
+    // Sub-admin listings: issues of a set of reporters, newest first
+    @Index(name = "idx_issues_reported_by_submission_date", columnList = "reported_by, submission_date")
+})
 public class Issue {
     
     @Id
@@ -122,10 +129,13 @@ public class Issue {
     private LocalDateTime updatedAt;
     
     // Relationships
+    // Batch-loaded: listing a page of issues loads all their attachments/comments in one query each
     @OneToMany(mappedBy = "issue", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<IssueAttachment> attachments = new ArrayList<>();
     
     @OneToMany(mappedBy = "issue", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<IssueComment> comments = new ArrayList<>();
     
     // Enums
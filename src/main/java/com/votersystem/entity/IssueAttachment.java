@@ -28,8 +28,8 @@ public class IssueAttachment {
     @Column(name = "file_name", nullable = false, length = 255)
     private String fileName;
     
-    @NotBlank(message = "File URL is required")
-    @Column(name = "file_url", nullable = false, length = 500)
+    // Set once the file has been pushed to storage (null while PENDING)
+    @Column(name = "file_url", length = 500)
     private String fileUrl;
     
     @Column(name = "cloudinary_public_id", length = 255)
@@ -53,6 +53,11 @@ public class IssueAttachment {
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
     
+    // Rows created before staged uploads existed have no status and are ready
+    @Enumerated(EnumType.STRING)
+    @Column(name = "upload_status", length = 20)
+    private UploadStatus uploadStatus = UploadStatus.READY;
+    
     // File type enum
     public enum FileType {
         IMAGE("Image"),
@@ -70,6 +75,13 @@ public class IssueAttachment {
         }
     }
     
+    // Upload status enum
+    public enum UploadStatus {
+        PENDING,  // staged locally, waiting to be pushed to storage
+        READY,    // stored, fileUrl is set
+        FAILED    // gave up after retries
+    }
+    
     // Constructors
     public IssueAttachment() {}
     
@@ -111,4 +123,7 @@ public class IssueAttachment {
     
     public LocalDateTime getUploadedAt() { return uploadedAt; }
     public void setUploadedAt(LocalDateTime uploadedAt) { this.uploadedAt = uploadedAt; }
+    
+    public UploadStatus getUploadStatus() { return uploadStatus != null ? uploadStatus : UploadStatus.READY; }
+    public void setUploadStatus(UploadStatus uploadStatus) { this.uploadStatus = uploadStatus; }
 }
@@ -11,7 +11,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    // Range scans over [start, end) windows of created_at (today, date ranges)
+    @Index(name = "idx_transactions_created_at", columnList = "created_at"),
+    @Index(name = "idx_transactions_agent_created", columnList = "agent_id, created_at"),
+    @Index(name = "idx_transactions_status_created", columnList = "status, created_at")
+})
 public class Transaction {
     
     @Id
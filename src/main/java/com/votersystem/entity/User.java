@@ -11,7 +11,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    // Users paid within a [start, end) window of paid_date, overall and per agent
+    @Index(name = "idx_users_paid_paid_date", columnList = "paid, paid_date"),
+    @Index(name = "idx_users_paid_by_paid_date", columnList = "paid_by, paid_date")
+})
 public class User {
     
     @Id
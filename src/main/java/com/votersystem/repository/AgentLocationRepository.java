@@ -13,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.votersystem.dto.AgentLocationResponse;
 import com.votersystem.entity.AgentLocation;
 
 @Repository
@@ -38,47 +39,43 @@ public interface AgentLocationRepository extends JpaRepository<AgentLocation, Lo
     @Query("SELECT al FROM AgentLocation al WHERE al.agentId IN :agentIds AND al.isCurrent = true AND al.connectionStatus = 'ONLINE'")
     List<AgentLocation> findOnlineAgentsByIds(@Param("agentIds") List<String> agentIds);
     
-    // Find location history for an agent
-    @Query("SELECT al FROM AgentLocation al WHERE al.agentId = :agentId ORDER BY al.timestamp DESC")
-    Page<AgentLocation> findLocationHistoryByAgentId(@Param("agentId") String agentId, Pageable pageable);
-    
-    // Find location history within date range
-    @Query("SELECT al FROM AgentLocation al WHERE al.agentId = :agentId AND al.timestamp BETWEEN :startDate AND :endDate ORDER BY al.timestamp DESC")
-    List<AgentLocation> findLocationHistoryByAgentIdAndDateRange(
-            @Param("agentId") String agentId,
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate
-    );
-    
-    // Find agents within a radius (using Haversine formula approximation)
-    @Query(value = "SELECT * FROM agent_locations al WHERE al.is_current = true " +
-           "AND (6371 * acos(cos(radians(:latitude)) * cos(radians(al.latitude)) * " +
-           "cos(radians(al.longitude) - radians(:longitude)) + sin(radians(:latitude)) * " +
-           "sin(radians(al.latitude)))) <= :radiusKm", nativeQuery = true)
-    List<AgentLocation> findAgentsWithinRadius(
-            @Param("latitude") Double latitude,
-            @Param("longitude") Double longitude,
-            @Param("radiusKm") Double radiusKm
-    );
-    
+    // Current locations joined with agent details in a single query (admin map views)
+    @Query("SELECT new com.votersystem.dto.AgentLocationResponse(al, a) FROM AgentLocation al " +
+           "JOIN Agent a ON a.id = al.agentId WHERE al.isCurrent = true")
+    List<AgentLocationResponse> findAllCurrentLocationResponses();
+
+    @Query("SELECT new com.votersystem.dto.AgentLocationResponse(al, a) FROM AgentLocation al " +
+           "JOIN Agent a ON a.id = al.agentId WHERE al.agentId IN :agentIds AND al.isCurrent = true")
+    List<AgentLocationResponse> findCurrentLocationResponsesByAgentIds(@Param("agentIds") List<String> agentIds);
+
+    @Query("SELECT new com.votersystem.dto.AgentLocationResponse(al, a) FROM AgentLocation al " +
+           "JOIN Agent a ON a.id = al.agentId WHERE al.isCurrent = true AND al.connectionStatus = 'ONLINE'")
+    List<AgentLocationResponse> findAllOnlineLocationResponses();
+
+    @Query("SELECT new com.votersystem.dto.AgentLocationResponse(al, a) FROM AgentLocation al " +
+           "JOIN Agent a ON a.id = al.agentId WHERE al.agentId IN :agentIds AND al.isCurrent = true " +
+           "AND al.connectionStatus = 'ONLINE'")
+    List<AgentLocationResponse> findOnlineLocationResponsesByAgentIds(@Param("agentIds") List<String> agentIds);
+
     // Update connection status for an agent
     @Modifying
     @Transactional
     @Query("UPDATE AgentLocation al SET al.connectionStatus = :status, al.timestamp = :timestamp WHERE al.agentId = :agentId AND al.isCurrent = true")
     int updateConnectionStatus(@Param("agentId") String agentId, @Param("status") AgentLocation.ConnectionStatus status, @Param("timestamp") LocalDateTime timestamp);
     
+    // Flip a batch of agents from ONLINE to OFFLINE in one statement
+    @Modifying
+    @Transactional
+    @Query("UPDATE AgentLocation al SET al.connectionStatus = 'OFFLINE', al.timestamp = :timestamp " +
+           "WHERE al.agentId IN :agentIds AND al.isCurrent = true AND al.connectionStatus = 'ONLINE'")
+    int markAgentsOffline(@Param("agentIds") List<String> agentIds, @Param("timestamp") LocalDateTime timestamp);
+
     // Mark all previous locations as not current for an agent
     @Modifying
     @Transactional
     @Query("UPDATE AgentLocation al SET al.isCurrent = false WHERE al.agentId = :agentId AND al.isCurrent = true")
     int markPreviousLocationsAsNotCurrent(@Param("agentId") String agentId);
     
-    // Delete old location history (older than specified days)
-    @Modifying
-    @Transactional
-    @Query("DELETE FROM AgentLocation al WHERE al.timestamp < :cutoffDate AND al.isCurrent = false")
-    int deleteOldLocationHistory(@Param("cutoffDate") LocalDateTime cutoffDate);
-    
     // Count online agents
     @Query("SELECT COUNT(al) FROM AgentLocation al WHERE al.isCurrent = true AND al.connectionStatus = 'ONLINE'")
     Long countOnlineAgents();
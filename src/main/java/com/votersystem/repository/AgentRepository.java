@@ -1,13 +1,17 @@
 package com.votersystem.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.votersystem.dto.AgentSummaryResponse;
 import com.votersystem.entity.Agent;
 
 @Repository
@@ -45,6 +49,9 @@ public interface AgentRepository extends JpaRepository<Agent, String> {
     
     // Find agents created by specific admin
     List<Agent> findByCreatedBy(String createdBy);
+    
+    // Reporting agents of issues: reportedBy holds the agent ID, or the mobile number for older issues
+    List<Agent> findByIdInOrMobileIn(Collection<String> ids, Collection<String> mobiles);
 
     // Find agents created by specific admin with specific status
     List<Agent> findByCreatedByAndStatus(String createdBy, Agent.AgentStatus status);
@@ -69,6 +76,20 @@ public interface AgentRepository extends JpaRepository<Agent, String> {
     @Query("SELECT a FROM Agent a ORDER BY a.totalPayments DESC")
     List<Agent> getTopPerformingAgents();
 
+    // Paged agent listing as a projection (no entity state, no credentials)
+    @Query(value = "SELECT new com.votersystem.dto.AgentSummaryResponse(a.id, a.firstName, a.lastName, a.mobile, " +
+           "a.status, a.interfaceStatus, a.paymentsToday, a.totalPayments, a.lastLocation, a.latitude, a.longitude, " +
+           "a.createdBy, a.createdAt, a.lastUpdated) FROM Agent a",
+           countQuery = "SELECT COUNT(a) FROM Agent a")
+    Page<AgentSummaryResponse> findAgentSummaries(Pageable pageable);
+
+    // Paged agent listing of one sub-admin as a projection
+    @Query(value = "SELECT new com.votersystem.dto.AgentSummaryResponse(a.id, a.firstName, a.lastName, a.mobile, " +
+           "a.status, a.interfaceStatus, a.paymentsToday, a.totalPayments, a.lastLocation, a.latitude, a.longitude, " +
+           "a.createdBy, a.createdAt, a.lastUpdated) FROM Agent a WHERE a.createdBy = :createdBy",
+           countQuery = "SELECT COUNT(a) FROM Agent a WHERE a.createdBy = :createdBy")
+    Page<AgentSummaryResponse> findAgentSummariesByCreatedBy(@Param("createdBy") String createdBy, Pageable pageable);
+
     // Get agents with location - new method to avoid compilation issues
     @Query("SELECT a FROM Agent a")
     List<Agent> getAllAgentsForLocation();
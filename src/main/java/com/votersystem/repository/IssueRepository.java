@@ -1,11 +1,14 @@
 package com.votersystem.repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,6 +28,10 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
     // Find by reporter (agent)
     Page<Issue> findByReportedBy(String reportedBy, Pageable pageable);
     List<Issue> findByReportedBy(String reportedBy);
+    
+    // Issue with its attachments in one query (comments load in one more, see @BatchSize)
+    @EntityGraph(attributePaths = "attachments")
+    Optional<Issue> findWithAttachmentsById(Long id);
     List<Issue> findByReportedByOrderByCreatedAtDesc(String reportedBy);
 
     // Find updated issues for polling
@@ -81,24 +88,32 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
            "(i.status = 'OPEN' OR i.status = 'IN_PROGRESS' OR i.status = 'REOPENED')")
     List<Issue> findOverdueIssues();
     
-    // Find issues created today
-    @Query("SELECT i FROM Issue i WHERE DATE(i.submissionDate) = CURRENT_DATE")
-    List<Issue> findIssuesToday();
+    // All dashboard counters in one pass (conditional aggregation); today/month are
+    // business-day windows (see BusinessCalendar). One row:
+    // [total, open, inProgress, resolved, closed, reopened, today, thisWeek, thisMonth, overdue]
+    @Query("SELECT COUNT(i), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'OPEN' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'IN_PROGRESS' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'RESOLVED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'CLOSED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.status = 'REOPENED' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.submissionDate >= :todayStart AND i.submissionDate < :todayEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.submissionDate >= :weekStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.submissionDate >= :monthStart AND i.submissionDate < :monthEnd THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN i.estimatedResolutionDate < :today AND " +
+           "(i.status = 'OPEN' OR i.status = 'IN_PROGRESS' OR i.status = 'REOPENED') THEN 1 ELSE 0 END), 0) " +
+           "FROM Issue i")
+    List<Object[]> getIssueStatisticsCounters(@Param("todayStart") LocalDateTime todayStart,
+                                              @Param("todayEnd") LocalDateTime todayEnd,
+                                              @Param("weekStart") LocalDateTime weekStart,
+                                              @Param("monthStart") LocalDateTime monthStart,
+                                              @Param("monthEnd") LocalDateTime monthEnd,
+                                              @Param("today") LocalDate today);
     
     // Find issues created this week
     @Query("SELECT i FROM Issue i WHERE i.submissionDate >= :weekStart")
     List<Issue> findIssuesThisWeek(@Param("weekStart") LocalDateTime weekStart);
     
-    // Find issues created this month
-    @Query("SELECT i FROM Issue i WHERE YEAR(i.submissionDate) = YEAR(CURRENT_DATE) AND " +
-           "MONTH(i.submissionDate) = MONTH(CURRENT_DATE)")
-    List<Issue> findIssuesThisMonth();
-    
-    // Get next sequence number for ticket generation
-    @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(i.ticketNumber, 10) AS int)), 0) + 1 " +
-           "FROM Issue i WHERE i.ticketNumber LIKE CONCAT('ISS-', :year, '-%')")
-    Integer getNextSequenceNumber(@Param("year") String year);
-    
     // Statistics queries
     @Query("SELECT i.status, COUNT(i) FROM Issue i GROUP BY i.status")
     List<Object[]> getIssueCountByStatus();
@@ -113,6 +128,31 @@ public interface IssueRepository extends JpaRepository<Issue, Long> {
     @Query("SELECT i FROM Issue i WHERE i.address IS NOT NULL AND i.address != ''")
     List<Issue> findIssuesWithAddress();
     
+    // Filters of the sub-admin issue listing; reporters are agent IDs (new issues) and mobiles (old issues)
+    String REPORTER_FILTERS = "WHERE i.reportedBy IN :reporters AND " +
+           "(:status IS NULL OR i.status = :status) AND " +
+           "(:category IS NULL OR i.category = :category) AND " +
+           "(:priority IS NULL OR i.priority = :priority) AND " +
+           "(:fromDate IS NULL OR i.submissionDate >= :fromDate) AND " +
+           "(:toDate IS NULL OR i.submissionDate < :toDate) AND " +
+           "(:searchTerm IS NULL OR " +
+           " LOWER(i.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           " LOWER(i.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           " LOWER(i.ticketNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')))";
+    
+    // Paged issues of a set of reporters with filters, sorted by the pageable's sort
+    @Query(value = "SELECT i FROM Issue i " + REPORTER_FILTERS,
+           countQuery = "SELECT COUNT(i) FROM Issue i " + REPORTER_FILTERS)
+    Page<Issue> findIssuesByReportersWithFilters(
+            @Param("reporters") Collection<String> reporters,
+            @Param("status") Issue.IssueStatus status,
+            @Param("category") Issue.IssueCategory category,
+            @Param("priority") Issue.IssuePriority priority,
+            @Param("fromDate") LocalDateTime fromDate,
+            @Param("toDate") LocalDateTime toDate,
+            @Param("searchTerm") String searchTerm,
+            Pageable pageable);
+    
     // Advanced search with multiple filters
     @Query("SELECT i FROM Issue i WHERE " +
            "(:status IS NULL OR i.status = :status) AND " +
@@ -30,13 +30,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
     // Find transactions by agent and date range
     List<Transaction> findByAgentIdAndCreatedAtBetween(String agentId, LocalDateTime startDate, LocalDateTime endDate);
     
-    // Find today's transactions
-    @Query("SELECT t FROM Transaction t WHERE DATE(t.createdAt) = CURRENT_DATE")
-    List<Transaction> findTodaysTransactions();
+    // Find transactions in a time window [start, end), e.g. today (see BusinessCalendar)
+    @Query("SELECT t FROM Transaction t WHERE t.createdAt >= :start AND t.createdAt < :end")
+    List<Transaction> findTransactionsInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    // Find today's transactions by agent
-    @Query("SELECT t FROM Transaction t WHERE t.agentId = :agentId AND DATE(t.createdAt) = CURRENT_DATE")
-    List<Transaction> findTodaysTransactionsByAgent(@Param("agentId") String agentId);
+    // Find transactions of an agent in a time window [start, end)
+    @Query("SELECT t FROM Transaction t WHERE t.agentId = :agentId AND t.createdAt >= :start AND t.createdAt < :end")
+    List<Transaction> findTransactionsByAgentInWindow(@Param("agentId") String agentId,
+                                                      @Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
     
     // Count total transactions
     @Query("SELECT COUNT(t) FROM Transaction t")
@@ -46,13 +48,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
     @Query("SELECT COUNT(t) FROM Transaction t WHERE t.status = :status")
     Long countByStatus(@Param("status") Transaction.TransactionStatus status);
     
-    // Count today's transactions
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE DATE(t.createdAt) = CURRENT_DATE")
-    Long countTodaysTransactions();
+    // Count transactions in a time window [start, end)
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.createdAt >= :start AND t.createdAt < :end")
+    Long countTransactionsInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    // Count today's transactions by agent
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.agentId = :agentId AND DATE(t.createdAt) = CURRENT_DATE")
-    Long countTodaysTransactionsByAgent(@Param("agentId") String agentId);
+    // Count transactions of an agent in a time window [start, end)
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.agentId = :agentId AND t.createdAt >= :start AND t.createdAt < :end")
+    Long countTransactionsByAgentInWindow(@Param("agentId") String agentId,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
     
     // Get total amount
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.status = 'COMPLETED'")
@@ -62,13 +66,17 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.agentId = :agentId AND t.status = 'COMPLETED'")
     BigDecimal getTotalAmountByAgent(@Param("agentId") String agentId);
     
-    // Get today's total amount
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.status = 'COMPLETED' AND DATE(t.createdAt) = CURRENT_DATE")
-    BigDecimal getTodaysTotalAmount();
+    // Get total amount in a time window [start, end)
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.status = 'COMPLETED' " +
+           "AND t.createdAt >= :start AND t.createdAt < :end")
+    BigDecimal getTotalAmountInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    // Get today's total amount by agent
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.agentId = :agentId AND t.status = 'COMPLETED' AND DATE(t.createdAt) = CURRENT_DATE")
-    BigDecimal getTodaysTotalAmountByAgent(@Param("agentId") String agentId);
+    // Get total amount of an agent in a time window [start, end)
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.agentId = :agentId AND t.status = 'COMPLETED' " +
+           "AND t.createdAt >= :start AND t.createdAt < :end")
+    BigDecimal getTotalAmountByAgentInWindow(@Param("agentId") String agentId,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
     
     // Get recent transactions with pagination
     Page<Transaction> findByOrderByCreatedAtDesc(Pageable pageable);
@@ -87,12 +95,11 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
            "ORDER BY YEAR(t.createdAt) DESC, MONTH(t.createdAt) DESC")
     List<Object[]> getMonthlyStatistics();
     
-    // Daily transaction statistics for current month
+    // Daily transaction statistics for a month window [start, end)
     @Query("SELECT DAY(t.createdAt), COUNT(t), SUM(t.amount) " +
            "FROM Transaction t WHERE t.status = 'COMPLETED' " +
-           "AND YEAR(t.createdAt) = YEAR(CURRENT_DATE) " +
-           "AND MONTH(t.createdAt) = MONTH(CURRENT_DATE) " +
+           "AND t.createdAt >= :start AND t.createdAt < :end " +
            "GROUP BY DAY(t.createdAt) " +
            "ORDER BY DAY(t.createdAt)")
-    List<Object[]> getDailyStatisticsForCurrentMonth();
+    List<Object[]> getDailyStatisticsInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
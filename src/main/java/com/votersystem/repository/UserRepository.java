@@ -62,21 +62,27 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COALESCE(SUM(u.amount), 0) FROM User u WHERE u.paid = true AND u.paidBy = :agentUsername")
     Double getAmountCollectedByAgent(@Param("agentUsername") String agentUsername);
     
-    // Get users paid today
-    @Query("SELECT u FROM User u WHERE u.paid = true AND DATE(u.paidDate) = CURRENT_DATE")
-    List<User> getUsersPaidToday();
-    
-    // Count users paid today
-    @Query("SELECT COUNT(u) FROM User u WHERE u.paid = true AND DATE(u.paidDate) = CURRENT_DATE")
-    Long countUsersPaidToday();
-    
-    // Get users paid today by specific agent
-    @Query("SELECT u FROM User u WHERE u.paid = true AND u.paidBy = :agentUsername AND DATE(u.paidDate) = CURRENT_DATE")
-    List<User> getUsersPaidTodayByAgent(@Param("agentUsername") String agentUsername);
-    
-    // Count users paid today by specific agent
-    @Query("SELECT COUNT(u) FROM User u WHERE u.paid = true AND u.paidBy = :agentUsername AND DATE(u.paidDate) = CURRENT_DATE")
-    Long countUsersPaidTodayByAgent(@Param("agentUsername") String agentUsername);
+    // Get users paid in a time window [start, end), e.g. today (see BusinessCalendar)
+    @Query("SELECT u FROM User u WHERE u.paid = true AND u.paidDate >= :start AND u.paidDate < :end")
+    List<User> getUsersPaidInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Count users paid in a time window [start, end)
+    @Query("SELECT COUNT(u) FROM User u WHERE u.paid = true AND u.paidDate >= :start AND u.paidDate < :end")
+    Long countUsersPaidInWindow(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // Get users paid by specific agent in a time window [start, end)
+    @Query("SELECT u FROM User u WHERE u.paid = true AND u.paidBy = :agentUsername " +
+           "AND u.paidDate >= :start AND u.paidDate < :end")
+    List<User> getUsersPaidByAgentInWindow(@Param("agentUsername") String agentUsername,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+    
+    // Count users paid by specific agent in a time window [start, end)
+    @Query("SELECT COUNT(u) FROM User u WHERE u.paid = true AND u.paidBy = :agentUsername " +
+           "AND u.paidDate >= :start AND u.paidDate < :end")
+    Long countUsersPaidByAgentInWindow(@Param("agentUsername") String agentUsername,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
     
     // Search users by multiple criteria
     @Query("SELECT u FROM User u WHERE " +
@@ -1,13 +1,18 @@
 package com.votersystem.security;
 
+import com.votersystem.service.TokenRevocationService;
 import com.votersystem.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +20,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,12 +31,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    // Build the principal from the signed claims instead of loading the account per request
+    @Value("${security.jwt.stateless:false}")
+    private boolean stateless;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         final String requestTokenHeader = request.getHeader("Authorization");
         
+        if (stateless) {
+            authenticateFromClaims(request, requestTokenHeader);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
         String username = null;
         String jwtToken = null;
         
@@ -65,4 +84,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+    
+    private void authenticateFromClaims(HttpServletRequest request, String requestTokenHeader) {
+        if (requestTokenHeader == null || !requestTokenHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+        
+        Claims claims;
+        try {
+            claims = jwtUtil.getVerifiedClaims(requestTokenHeader.substring(7));
+        } catch (Exception e) {
+            logger.warn("Unable to get JWT Token or JWT Token has expired");
+            return;
+        }
+        
+        String username = claims.getSubject();
+        if (username == null || tokenRevocationService.isRevoked(username, claims.getIssuedAt())) {
+            return;
+        }
+        
+        // Same authority as CustomUserDetailsService: ROLE_ + admin role, or ROLE_AGENT
+        String role = claims.get("role", String.class);
+        if (role == null) {
+            role = claims.get("userType", String.class);
+        }
+        if (role == null) {
+            return;
+        }
+        
+        UserDetails userDetails = User.withUsername(username)
+                .password("")
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_" + role)))
+                .build();
+        UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 }
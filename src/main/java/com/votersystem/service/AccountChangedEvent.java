@@ -0,0 +1,19 @@
+package com.votersystem.service;
+
+/**
+ * Published when an agent or administrator account changes in a way that
+ * affects authentication (credentials, mobile/username, status or deletion).
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class AccountChangedEvent {
+
+    private final String username;
+
+    public AccountChangedEvent(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -2,17 +2,16 @@ package com.votersystem.service;
 
 import com.votersystem.controller.AdminController;
 import com.votersystem.entity.Administrator;
-import com.votersystem.entity.Agent;
 import com.votersystem.repository.AdministratorRepository;
-import com.votersystem.repository.AgentRepository;
-import com.votersystem.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -22,13 +21,16 @@ public class AdminService {
     private AdministratorRepository administratorRepository;
 
     @Autowired
-    private AgentRepository agentRepository;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private TokenRevocationService tokenRevocationService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private TransactionRollupService transactionRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // @Autowired
     // private EmailService emailService;
@@ -89,6 +91,10 @@ public class AdminService {
         if (request.getLastName() != null) {
             subAdmin.setLastName(request.getLastName());
         }
+        if (request.getMobile() != null && !subAdmin.getMobile().equals(request.getMobile())) {
+            tokenRevocationService.revokeTokensIssuedBefore(subAdmin.getMobile());
+            eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getMobile()));
+        }
         if (request.getMobile() != null) {
             subAdmin.setMobile(request.getMobile());
         }
@@ -96,6 +102,8 @@ public class AdminService {
         // Update password if provided
         if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
             subAdmin.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+            tokenRevocationService.revokeTokensIssuedBefore(subAdmin.getMobile());
+            eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getMobile()));
         }
 
         return administratorRepository.save(subAdmin);
@@ -105,17 +113,21 @@ public class AdminService {
         Administrator subAdmin = getSubAdminById(id);
         subAdmin.setStatus(Administrator.AdminStatus.BLOCKED);
         administratorRepository.save(subAdmin);
+        eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getMobile()));
     }
     
     public void unblockSubAdmin(String id) {
         Administrator subAdmin = getSubAdminById(id);
         subAdmin.setStatus(Administrator.AdminStatus.ACTIVE);
         administratorRepository.save(subAdmin);
+        eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getMobile()));
     }
 
     public void deleteSubAdmin(String id) {
         Administrator subAdmin = getSubAdminById(id);
         administratorRepository.delete(subAdmin);
+        tokenRevocationService.revokeTokensIssuedBefore(subAdmin.getMobile());
+        eventPublisher.publishEvent(new AccountChangedEvent(subAdmin.getMobile()));
     }
     
     public List<Administrator> getAdminsByCreator(String createdBy) {
@@ -148,6 +160,8 @@ public class AdminService {
         Administrator admin = getSubAdminById(id);
         admin.setPasswordHash(passwordEncoder.encode(newPassword));
         administratorRepository.save(admin);
+        tokenRevocationService.revokeTokensIssuedBefore(admin.getMobile());
+        eventPublisher.publishEvent(new AccountChangedEvent(admin.getMobile()));
 
         // Email sending disabled - new password will be provided manually
         // emailService.sendPasswordResetEmail(admin.getEmail(), admin.getFirstName(), newPassword);
@@ -172,42 +186,15 @@ public class AdminService {
      * Calculate and update total payments overseen by each admin
      */
     private void updateTotalPaymentsForAllAdmins(List<Administrator> admins) {
+        // One grouped read of the per-sub-admin rollup (agents store the admin mobile as createdBy)
+        Map<String, BigDecimal> totalsByCreator = transactionRollupService.getCompletedAmountBySubAdmin();
         for (Administrator admin : admins) {
-            updateTotalPaymentsForAdmin(admin);
-        }
-    }
-
-    /**
-     * Calculate total payments overseen by a specific admin
-     */
-    private void updateTotalPaymentsForAdmin(Administrator admin) {
-        System.out.println("=== Calculating payments for admin: " + admin.getId() + " (mobile: " + admin.getMobile() + ") ===");
-
-        // Find all agents created by this admin using mobile number (since agents store mobile as createdBy)
-        List<Agent> adminAgents = agentRepository.findByCreatedBy(admin.getMobile());
-        System.out.println("Found " + adminAgents.size() + " agents created by admin mobile " + admin.getMobile());
-
-        // Calculate total amount from completed transactions made by these agents
-        BigDecimal totalAmount = BigDecimal.ZERO;
-
-        for (Agent agent : adminAgents) {
-            System.out.println("Checking agent: " + agent.getId());
-            // Use the repository method to get total amount for this agent
-            BigDecimal agentTotal = transactionRepository.getTotalAmountByAgent(agent.getId());
-            System.out.println("Agent " + agent.getId() + " total: " + agentTotal);
-            if (agentTotal != null) {
-                totalAmount = totalAmount.add(agentTotal);
+            BigDecimal totalAmount = totalsByCreator.getOrDefault(admin.getMobile(), BigDecimal.ZERO);
+            if (!Integer.valueOf(totalAmount.intValue()).equals(admin.getTotalPayments())) {
+                admin.setTotalPayments(totalAmount.intValue());
+                administratorRepository.save(admin);
             }
         }
-
-        System.out.println("Total amount for admin " + admin.getId() + ": " + totalAmount);
-
-        // Update the admin's total payments field
-        admin.setTotalPayments(totalAmount.intValue());
-
-        // Save to database
-        administratorRepository.save(admin);
-        System.out.println("Updated admin " + admin.getId() + " with total payments: " + totalAmount.intValue());
     }
 
     /**
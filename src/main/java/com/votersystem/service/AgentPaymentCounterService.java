@@ -0,0 +1,146 @@
+package com.votersystem.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.votersystem.util.BusinessCalendar;
+
+/**
+ * Incrementally maintained payment counters.
+ * Each completed payment adds its amount to the agent's exact running total
+ * (agents.total_payments_amount) and to a per-agent, per-day bucket in
+ * agent_payment_daily, in the caller's transaction; the whole-rupee
+ * total_payments/payments_today columns are truncated from those exact sums,
+ * as the reconciliation does. Reading an agent's amount
+ * for a day is then a primary-key lookup; recomputation from transactions is
+ * only needed for reconciliation.
+ */
+@Service
+public class AgentPaymentCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentPaymentCounterService.class);
+
+    private static final String TABLE_NAME = "agent_payment_daily";
+
+    private static final String UPSERT_BUCKET_SQL =
+            "INSERT INTO " + TABLE_NAME + " (agent_id, day, amount, payment_count) VALUES (?, ?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), payment_count = payment_count + 1";
+
+    // Both rupee columns are truncated from exact sums so paise never accumulate as rounding drift.
+    // total_payments only reads the pre-update exact total, so assignment order does not matter
+    private static final String INCREMENT_AGENT_SQL =
+            "UPDATE agents a SET a.total_payments = TRUNCATE(a.total_payments_amount + ?, 0), " +
+            "a.total_payments_amount = a.total_payments_amount + ?, " +
+            "a.payments_today = (SELECT TRUNCATE(d.amount, 0) FROM " + TABLE_NAME + " d " +
+            "                    WHERE d.agent_id = a.id AND d.day = ?), " +
+            "a.last_updated = NOW() WHERE a.id = ?";
+
+    private static final String SELECT_AMOUNT_SQL =
+            "SELECT amount FROM " + TABLE_NAME + " WHERE agent_id = ? AND day = ?";
+
+    private static final String SELECT_COUNT_SQL =
+            "SELECT payment_count FROM " + TABLE_NAME + " WHERE agent_id = ? AND day = ?";
+
+    private static final String BACKFILL_TOTAL_AMOUNT_SQL =
+            "UPDATE agents a JOIN (" +
+            "  SELECT agent_id, SUM(amount) AS total_amount FROM transactions " +
+            "  WHERE status = 'COMPLETED' GROUP BY agent_id" +
+            ") t ON t.agent_id = a.id " +
+            "SET a.total_payments_amount = t.total_amount, a.total_payments = TRUNCATE(t.total_amount, 0)";
+
+    private static final String DELETE_BUCKETS_SQL = "DELETE FROM " + TABLE_NAME + " WHERE day >= ?";
+
+    // Rows are bucketed by business day: created_at shifted by the storage-to-business offset
+    private static final String REBUILD_BUCKETS_SQL =
+            "INSERT INTO " + TABLE_NAME + " (agent_id, day, amount, payment_count) " +
+            "SELECT agent_id, DATE(created_at + INTERVAL ? SECOND) AS day, SUM(amount), COUNT(*) " +
+            "FROM transactions WHERE status = 'COMPLETED' AND created_at >= ? " +
+            "GROUP BY agent_id, day";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    /**
+     * Create the bucket table if needed and backfill it and the exact payment totals
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "agent_id VARCHAR(20) NOT NULL, " +
+                    "day DATE NOT NULL, " +
+                    "amount DECIMAL(14,2) NOT NULL DEFAULT 0, " +
+                    "payment_count INT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (agent_id, day), " +
+                    "INDEX idx_agent_payment_daily_day (day)" +
+                    ") ENGINE=InnoDB");
+
+            // The column is created by ddl-auto=update (Agent maps it read-only) with every value 0
+            Integer exactTotals = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM agents WHERE total_payments_amount <> 0", Integer.class);
+            if (exactTotals != null && exactTotals == 0) {
+                int backfilled = jdbcTemplate.update(BACKFILL_TOTAL_AMOUNT_SQL);
+                logger.info("Backfilled exact payment totals of {} agents from transactions", backfilled);
+            }
+
+            Integer buckets = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE_NAME, Integer.class);
+            if (buckets != null && buckets == 0) {
+                int created = rebuildBuckets(LocalDate.of(1970, 1, 1));
+                logger.info("Backfilled {} agent payment buckets from transactions", created);
+            }
+        } catch (Exception e) {
+            logger.error("Error initializing agent payment counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count a completed payment for an agent; joins the caller's transaction so the
+     * counters commit or roll back together with the transaction row
+     */
+    public void recordPayment(String agentId, BigDecimal amount, LocalDate day) {
+        Date bucketDay = Date.valueOf(day);
+        jdbcTemplate.update(UPSERT_BUCKET_SQL, agentId, bucketDay, amount);
+        jdbcTemplate.update(INCREMENT_AGENT_SQL, amount, amount, bucketDay, agentId);
+    }
+
+    /**
+     * Completed payment amount of an agent on a day
+     */
+    public BigDecimal getAmount(String agentId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_AMOUNT_SQL, rs -> rs.next() ? rs.getBigDecimal(1) : BigDecimal.ZERO,
+                agentId, Date.valueOf(day));
+    }
+
+    /**
+     * Number of completed payments of an agent on a day
+     */
+    public long getCount(String agentId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_COUNT_SQL, rs -> rs.next() ? rs.getLong(1) : 0L,
+                agentId, Date.valueOf(day));
+    }
+
+    /**
+     * Recompute all buckets from the given business day on from the transactions table
+     *
+     * @return number of buckets written
+     */
+    @Transactional
+    public int rebuildBuckets(LocalDate fromDay) {
+        jdbcTemplate.update(DELETE_BUCKETS_SQL, Date.valueOf(fromDay));
+        return jdbcTemplate.update(REBUILD_BUCKETS_SQL, businessCalendar.storageToBusinessOffsetSeconds(),
+                businessCalendar.day(fromDay).getStart());
+    }
+}
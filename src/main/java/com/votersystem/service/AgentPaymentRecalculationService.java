@@ -0,0 +1,171 @@
+package com.votersystem.service;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.votersystem.util.BusinessCalendar;
+import com.votersystem.util.TimeWindow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Recomputes the denormalized agent payment columns (total_payments_amount,
+ * total_payments, payments_today): the nightly reconciliation from the transactions table and
+ * the midnight reset of today's payments from the day buckets.
+ * Agents are processed in ID-ordered chunks; each chunk is a single bulk UPDATE
+ * joined to a grouped aggregate of its agents' rows, committed on its own so
+ * row locks are held only for one chunk. Only rows
+ * whose values actually differ are written.
+ */
+@Service
+public class AgentPaymentRecalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentPaymentRecalculationService.class);
+
+    private static final String NEXT_CHUNK_SQL = "SELECT id FROM agents WHERE id > ? ORDER BY id LIMIT ?";
+
+    // The exact total is stored as is and the Integer columns are truncated to whole rupees,
+    // exactly as AgentPaymentCounterService derives them; "today" is the business day's [start, end) window
+    private static final String RECALCULATE_ALL_SQL =
+            "UPDATE agents a LEFT JOIN (" +
+            "  SELECT agent_id, SUM(amount) AS total_amount, " +
+            "         SUM(CASE WHEN created_at >= ? AND created_at < ? " +
+            "                  THEN amount ELSE 0 END) AS today_amount " +
+            "  FROM transactions " +
+            "  WHERE status = 'COMPLETED' AND agent_id >= ? AND agent_id <= ? " +
+            "  GROUP BY agent_id" +
+            ") t ON t.agent_id = a.id " +
+            "SET a.total_payments_amount = COALESCE(t.total_amount, 0), " +
+            "    a.total_payments = TRUNCATE(COALESCE(t.total_amount, 0), 0), " +
+            "    a.payments_today = TRUNCATE(COALESCE(t.today_amount, 0), 0), " +
+            "    a.last_updated = NOW() " +
+            "WHERE a.id >= ? AND a.id <= ? " +
+            "  AND (a.total_payments_amount <> COALESCE(t.total_amount, 0) " +
+            "    OR a.total_payments <> TRUNCATE(COALESCE(t.total_amount, 0), 0) " +
+            "    OR a.payments_today <> TRUNCATE(COALESCE(t.today_amount, 0), 0))";
+
+    // Today's amounts come from the day buckets (primary-key lookups)
+    private static final String RESET_TODAY_SQL =
+            "UPDATE agents a LEFT JOIN (" +
+            "  SELECT agent_id, amount AS today_amount " +
+            "  FROM agent_payment_daily " +
+            "  WHERE day = ? AND agent_id >= ? AND agent_id <= ?" +
+            ") t ON t.agent_id = a.id " +
+            "SET a.payments_today = TRUNCATE(COALESCE(t.today_amount, 0), 0), " +
+            "    a.last_updated = NOW() " +
+            "WHERE a.id >= ? AND a.id <= ? " +
+            "  AND a.payments_today <> TRUNCATE(COALESCE(t.today_amount, 0), 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AgentPaymentCounterService agentPaymentCounterService;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    @Value("${payments.recalculation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${payments.reconciliation.bucket-days:2}")
+    private int reconciliationBucketDays;
+
+    // Agents processed by the running (or last) recalculation
+    private final AtomicLong processedAgents = new AtomicLong();
+
+    private Counter updatedAgentsCounter;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("agent.payments.recalculation.processed", processedAgents, AtomicLong::get)
+                .description("Agents processed by the current or last payment recalculation")
+                .register(meterRegistry);
+        updatedAgentsCounter = Counter.builder("agent.payments.recalculation.updated")
+                .description("Agents whose payment columns were corrected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconcile the incrementally maintained counters with the transactions table:
+     * rebuild the recent day buckets, then recompute total and today's payments
+     * for every agent
+     *
+     * @return number of agents whose values changed
+     */
+    public int recalculateAll() {
+        int buckets = agentPaymentCounterService.rebuildBuckets(
+                businessCalendar.today().minusDays(Math.max(reconciliationBucketDays, 1) - 1L));
+        logger.info("Rebuilt {} agent payment buckets", buckets);
+        TimeWindow today = businessCalendar.todayWindow();
+        return run("all", RECALCULATE_ALL_SQL, today.getStart(), today.getEnd());
+    }
+
+    /**
+     * Set today's payments of every agent from today's buckets (e.g. at midnight)
+     *
+     * @return number of agents whose values changed
+     */
+    public int recalculateToday() {
+        return run("today", RESET_TODAY_SQL, Date.valueOf(businessCalendar.today()));
+    }
+
+    private int run(String scope, String sql, Object... leadingArgs) {
+        long start = System.nanoTime();
+        processedAgents.set(0);
+        int updated = 0;
+        int chunks = 0;
+
+        String lastId = "";
+        while (true) {
+            List<String> ids = jdbcTemplate.queryForList(NEXT_CHUNK_SQL, String.class, lastId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            String firstId = ids.get(0);
+            lastId = ids.get(ids.size() - 1);
+
+            Object[] args = Arrays.copyOf(leadingArgs, leadingArgs.length + 4);
+            args[leadingArgs.length] = firstId;
+            args[leadingArgs.length + 1] = lastId;
+            args[leadingArgs.length + 2] = firstId;
+            args[leadingArgs.length + 3] = lastId;
+            int changed = jdbcTemplate.update(sql, args);
+            updated += changed;
+            chunks++;
+            processedAgents.addAndGet(ids.size());
+            updatedAgentsCounter.increment(changed);
+
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("agent.payments.recalculation")
+                .description("Duration of agent payment recalculation runs")
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Payment recalculation ({}) processed {} agents in {} chunks, {} updated, {} ms",
+                scope, processedAgents.get(), chunks, updated, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return updated;
+    }
+}
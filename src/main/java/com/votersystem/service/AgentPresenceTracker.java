@@ -0,0 +1,163 @@
+package com.votersystem.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.votersystem.entity.AgentLocation;
+import com.votersystem.repository.AgentLocationRepository;
+
+/**
+ * Tracks when each online agent was last seen and reports agents whose
+ * deadline has passed. Each online agent has at most one entry in a delay
+ * queue; when it expires the agent is either reported offline or re-armed
+ * with a deadline based on its latest activity.
+ */
+@Service
+public class AgentPresenceTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgentPresenceTracker.class);
+
+    @Autowired
+    private AgentLocationRepository agentLocationRepository;
+
+    @Value("${location.presence.offline-after-ms:15000}")
+    private long offlineAfterMillis;
+
+    // Agents currently considered online, with their last activity and armed deadline
+    private final Map<String, Presence> presences = new ConcurrentHashMap<>();
+
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+
+    /**
+     * Register agents that were ONLINE before startup so they expire normally
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            List<AgentLocation> online = agentLocationRepository
+                    .findAgentsByConnectionStatus(AgentLocation.ConnectionStatus.ONLINE);
+            for (AgentLocation location : online) {
+                long seenAt = location.getTimestamp() != null
+                        ? location.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis();
+                touch(location.getAgentId(), seenAt);
+            }
+            logger.info("Presence tracker initialized with {} online agents", online.size());
+        } catch (Exception e) {
+            logger.error("Error initializing presence tracker: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record activity (location update, ping or ONLINE status) for an agent
+     */
+    public void touch(String agentId) {
+        touch(agentId, System.currentTimeMillis());
+    }
+
+    /**
+     * Stop tracking an agent that reported itself offline or disconnected
+     */
+    public void forget(String agentId) {
+        presences.remove(agentId);
+    }
+
+    /**
+     * Last activity of an agent, or null if it is not considered online
+     */
+    public LocalDateTime getLastSeen(String agentId) {
+        Presence presence = presences.get(agentId);
+        return presence != null ? toLocalDateTime(presence.seenAt) : null;
+    }
+
+    /**
+     * Collect agents whose deadline has passed without new activity.
+     * Agents that were active in the meantime are re-armed instead.
+     */
+    public List<String> drainExpired() {
+        List<String> expired = new ArrayList<>();
+        Deadline deadline;
+        while ((deadline = deadlines.poll()) != null) {
+            Deadline polled = deadline;
+            long now = System.currentTimeMillis();
+            boolean[] offline = {false};
+            presences.computeIfPresent(polled.agentId, (id, presence) -> {
+                if (presence.deadline != polled) {
+                    // Superseded by a newer deadline (agent was forgotten and came back)
+                    return presence;
+                }
+                if (presence.seenAt + offlineAfterMillis <= now) {
+                    offline[0] = true;
+                    return null;
+                }
+                return new Presence(presence.seenAt, arm(id, presence.seenAt));
+            });
+            if (offline[0]) {
+                expired.add(polled.agentId);
+            }
+        }
+        return expired;
+    }
+
+    private void touch(String agentId, long seenAt) {
+        presences.compute(agentId, (id, presence) -> presence == null
+                ? new Presence(seenAt, arm(id, seenAt)) // not tracked yet - arm its first deadline
+                : new Presence(Math.max(seenAt, presence.seenAt), presence.deadline));
+    }
+
+    private Deadline arm(String agentId, long seenAt) {
+        Deadline deadline = new Deadline(agentId, seenAt + offlineAfterMillis);
+        deadlines.add(deadline);
+        return deadline;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class Presence {
+        private final long seenAt;
+        private final Deadline deadline;
+
+        private Presence(long seenAt, Deadline deadline) {
+            this.seenAt = seenAt;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Deadline implements Delayed {
+        private final String agentId;
+        private final long expiresAt;
+
+        private Deadline(String agentId, long expiresAt) {
+            this.agentId = agentId;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAt, ((Deadline) other).expiresAt);
+        }
+    }
+}
@@ -1,25 +1,35 @@
 package com.votersystem.service;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.votersystem.controller.AgentController;
+import com.votersystem.dto.AgentSummaryResponse;
 import com.votersystem.entity.Agent;
 import com.votersystem.entity.User;
 import com.votersystem.repository.AgentRepository;
-import com.votersystem.repository.TransactionRepository;
 import com.votersystem.repository.UserRepository;
 
 @Service
 @Transactional
 public class AgentService {
     
+    private static final Set<String> AGENT_SORT_PROPERTIES = Set.of("totalPayments", "paymentsToday", "id");
+    
+    private static final int MAX_PAGE_SIZE = 200;
+    
     @Autowired
     private AgentRepository agentRepository;
 
@@ -27,10 +37,19 @@ public class AgentService {
     private UserRepository userRepository;
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private LocationTrackingService locationTrackingService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AgentPaymentRecalculationService agentPaymentRecalculationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // Email service disabled - credentials provided manually
     // @Autowired
@@ -51,13 +70,33 @@ public class AgentService {
                 .orElseThrow(() -> new RuntimeException("Agent not found with id: " + id));
     }
     
+    @Transactional(readOnly = true)
     public List<Agent> getAllAgents() {
-        List<Agent> agents = agentRepository.findAll();
-        // Recalculate payment totals for all agents to ensure accuracy
-        for (Agent agent : agents) {
-            recalculateAgentPayments(agent);
+        // Payment totals are maintained with every payment, no recalculation needed
+        return agentRepository.findAll();
+    }
+    
+    /**
+     * Paged, read-only agent listing. createdBy limits it to one sub-admin's agents
+     * (null for all); only indexed columns (payment totals, ID) are accepted as sort properties.
+     */
+    @Transactional(readOnly = true)
+    public Page<AgentSummaryResponse> getAgentSummaries(String createdBy, int page, int size,
+                                                        String sortBy, String direction) {
+        if (!AGENT_SORT_PROPERTIES.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort property: " + sortBy);
         }
-        return agents;
+        Sort.Direction sortDirection = "asc".equalsIgnoreCase(direction) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        // ID as tie-breaker keeps page boundaries stable between requests; it runs in the same
+        // direction so the (..., sort column) index (whose last part is the primary key) can be
+        // read forwards or backwards without a filesort
+        Sort sort = "id".equals(sortBy)
+                ? Sort.by(sortDirection, "id")
+                : Sort.by(sortDirection, sortBy, "id");
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), sort);
+        return createdBy == null
+                ? agentRepository.findAgentSummaries(pageable)
+                : agentRepository.findAgentSummariesByCreatedBy(createdBy, pageable);
     }
     
     public List<Agent> getActiveAgents() {
@@ -126,11 +165,16 @@ public class AgentService {
         if (!agent.getMobile().equals(mobile) && agentRepository.existsByMobile(mobile)) {
             throw new RuntimeException("Agent with this mobile number already exists");
         }
+        if (!agent.getMobile().equals(mobile)) {
+            tokenRevocationService.revokeTokensIssuedBefore(agent.getMobile());
+            eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
+        }
 
         agent.setFirstName(firstName);
         agent.setLastName(lastName);
         agent.setMobile(mobile);
 
+        locationTrackingService.evictAgentProfile(id);
         return agentRepository.save(agent);
     }
 
@@ -150,6 +194,10 @@ public class AgentService {
         if (lastName != null) {
             agent.setLastName(lastName);
         }
+        if (mobile != null && !agent.getMobile().equals(mobile)) {
+            tokenRevocationService.revokeTokensIssuedBefore(agent.getMobile());
+            eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
+        }
         if (mobile != null) {
             agent.setMobile(mobile);
         }
@@ -157,8 +205,11 @@ public class AgentService {
         // Update password if provided
         if (password != null && !password.trim().isEmpty()) {
             agent.setPasswordHash(passwordEncoder.encode(password));
+            tokenRevocationService.revokeTokensIssuedBefore(agent.getMobile());
+            eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
         }
 
+        locationTrackingService.evictAgentProfile(id);
         return agentRepository.save(agent);
     }
 
@@ -172,6 +223,7 @@ public class AgentService {
         }
 
         agent.setInterfaceStatus(interfaceStatus);
+        locationTrackingService.evictAgentProfile(id);
         return agentRepository.save(agent);
     }
 
@@ -181,17 +233,24 @@ public class AgentService {
         Agent agent = getAgentById(id);
         agent.setStatus(Agent.AgentStatus.BLOCKED);
         agentRepository.save(agent);
+        locationTrackingService.evictAgentProfile(id);
+        eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
     }
     
     public void unblockAgent(String id) {
         Agent agent = getAgentById(id);
         agent.setStatus(Agent.AgentStatus.ACTIVE);
         agentRepository.save(agent);
+        locationTrackingService.evictAgentProfile(id);
+        eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
     }
 
     public void deleteAgent(String id) {
         Agent agent = getAgentById(id);
         agentRepository.delete(agent);
+        locationTrackingService.clearAgentState(id);
+        tokenRevocationService.revokeTokensIssuedBefore(agent.getMobile());
+        eventPublisher.publishEvent(new AccountChangedEvent(agent.getMobile()));
     }
     
 
@@ -237,31 +296,9 @@ public class AgentService {
     /**
      * Recalculate payment totals for all agents from transaction data
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void recalculateAllAgentPayments() {
-        List<Agent> allAgents = agentRepository.findAll();
-        for (Agent agent : allAgents) {
-            recalculateAgentPayments(agent);
-        }
-    }
-
-    /**
-     * Recalculate payment totals for a specific agent
-     */
-    private void recalculateAgentPayments(Agent agent) {
-        // Get total amount distributed by this agent
-        BigDecimal totalAmount = transactionRepository.getTotalAmountByAgent(agent.getId());
-        BigDecimal todayAmount = transactionRepository.getTodaysTotalAmountByAgent(agent.getId());
-
-        // Update agent's payment fields
-        agent.setTotalPayments(totalAmount != null ? totalAmount.intValue() : 0);
-        agent.setPaymentsToday(todayAmount != null ? todayAmount.intValue() : 0);
-
-        // Save to database
-        agentRepository.save(agent);
-
-        System.out.println("Updated agent " + agent.getId() +
-                          " - Total: ₹" + (totalAmount != null ? totalAmount : 0) +
-                          ", Today: ₹" + (todayAmount != null ? todayAmount : 0));
+        agentPaymentRecalculationService.recalculateAll();
     }
 
     /**
@@ -0,0 +1,22 @@
+package com.votersystem.service;
+
+import java.util.List;
+
+import com.votersystem.dto.AgentLocationResponse;
+
+/**
+ * Published when agents whose presence expired have been marked OFFLINE.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class AgentsOfflineEvent {
+
+    private final List<AgentLocationResponse> locations;
+
+    public AgentsOfflineEvent(List<AgentLocationResponse> locations) {
+        this.locations = locations;
+    }
+
+    public List<AgentLocationResponse> getLocations() {
+        return locations;
+    }
+}
@@ -12,6 +12,7 @@ import com.votersystem.repository.AgentRepository;
 import com.votersystem.repository.LoginLogRepository;
 import com.votersystem.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -53,6 +54,12 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     public LoginResponse login(LoginRequest loginRequest, String ipAddress, String userAgent) {
         try {
             // Check if the username is actually a mobile number (for agent mobile login)
@@ -87,11 +94,8 @@ public class AuthService {
             // Log successful login
             logLoginAttempt(username, userType, ipAddress, userAgent, LoginLog.LoginStatus.SUCCESS, null);
             
-            // Get the actual role for administrators
+            // For administrators the user type already is the actual role
             String role = userType;
-            if (administratorRepository.findByUsername(username).isPresent()) {
-                role = administratorRepository.findByUsername(username).get().getRole().name();
-            }
 
             return new LoginResponse(
                 token,
@@ -272,11 +276,8 @@ public class AuthService {
         String userType = userDetailsService.getUserType(username);
         String userId = userDetailsService.getUserId(username);
         
-        // Get the actual role for administrators
+        // For administrators the user type already is the actual role
         String role = userType;
-        if (administratorRepository.findByMobile(username).isPresent()) {
-            role = administratorRepository.findByMobile(username).get().getRole().name();
-        }
 
         return new LoginResponse(
             newToken,
@@ -305,6 +306,8 @@ public class AuthService {
                 }
                 agent.setPasswordHash(passwordEncoder.encode(newPassword));
                 agentRepository.save(agent);
+                tokenRevocationService.revokeTokensIssuedBefore(username);
+                eventPublisher.publishEvent(new AccountChangedEvent(username));
             }
         } else {
             Optional<Administrator> adminOpt = administratorRepository.findByMobile(username);
@@ -315,6 +318,8 @@ public class AuthService {
                 }
                 admin.setPasswordHash(passwordEncoder.encode(newPassword));
                 administratorRepository.save(admin);
+                tokenRevocationService.revokeTokensIssuedBefore(username);
+                eventPublisher.publishEvent(new AccountChangedEvent(username));
             }
         }
     }
@@ -334,12 +339,8 @@ public class AuthService {
     }
     
     private String determineUserType(String username) {
-        if (administratorRepository.findByMobile(username).isPresent()) {
-            return administratorRepository.findByMobile(username).get().getRole().name();
-        } else if (agentRepository.findByMobile(username).isPresent()) {
-            return "AGENT";
-        }
-        return "UNKNOWN";
+        String userType = userDetailsService.getUserType(username);
+        return userType != null ? userType : "UNKNOWN";
     }
 
     /**
@@ -431,6 +432,10 @@ public class AuthService {
             // Save changes
             administratorRepository.save(admin);
 
+            // Tokens issued for the old phone number or password are no longer valid
+            tokenRevocationService.revokeTokensIssuedBefore(currentUsername);
+            eventPublisher.publishEvent(new AccountChangedEvent(currentUsername));
+
             // Create UserDetails for token generation
             UserDetails userDetails = User.withUsername(finalPhoneNumber)
                     .password(admin.getPasswordHash())
@@ -0,0 +1,86 @@
+package com.votersystem.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+
+/**
+ * Cloudinary storage backend; uploads are streamed from the staged file on disk.
+ * Videos use Cloudinary's chunked upload with the staged file's name as the
+ * upload ID and report a resume point as chunks complete, so an attempt after a
+ * failure or restart continues from the last chunk known to have been sent
+ * instead of from the start.
+ */
+@Service
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryMediaStorage implements MediaStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(CloudinaryMediaStorage.class);
+
+    @Autowired(required = false)
+    private Cloudinary cloudinary;
+
+    @Value("${media.upload.chunk-size:6000000}")
+    private int chunkSize;
+
+    @Override
+    public StoredMedia store(Path file, String folder, String resourceType,
+                             long resumeOffset, LongConsumer resumePoints) throws IOException {
+        Map uploadResult;
+        if ("image".equals(resourceType)) {
+            uploadResult = requireCloudinary().uploader().upload(file.toFile(), ObjectUtils.asMap(
+                    "folder", folder, "resource_type", "image", "quality", "auto", "fetch_format", "auto"));
+        } else {
+            uploadResult = uploadChunked(file, ObjectUtils.asMap(
+                    "folder", folder, "resource_type", resourceType, "quality", "auto"), resumeOffset, resumePoints);
+        }
+        return new StoredMedia((String) uploadResult.get("secure_url"), (String) uploadResult.get("public_id"));
+    }
+
+    @Override
+    public boolean delete(String publicId, String resourceType) throws IOException {
+        Map deleteResult = requireCloudinary().uploader().destroy(publicId,
+                ObjectUtils.asMap("resource_type", resourceType));
+        return "ok".equals(deleteResult.get("result"));
+    }
+
+    private Map uploadChunked(Path file, Map<String, Object> uploadParams,
+                              long resumeOffset, LongConsumer resumePoints) throws IOException {
+        Cloudinary client = requireCloudinary();
+        String uploadId = file.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        long offset = resumeOffset - resumeOffset % chunkSize;
+        if (offset > 0) {
+            logger.info("Resuming upload {} at byte {}", uploadId, offset);
+        }
+
+        AtomicLong resumePoint = new AtomicLong(offset);
+        return client.uploader().uploadLarge(file.toFile(), uploadParams, chunkSize, offset, uploadId,
+                (bytesUploaded, totalBytes) -> {
+                    // The chunk in flight may not have been received: resume one chunk before it
+                    long point = Math.max(0, bytesUploaded / chunkSize - 1) * chunkSize;
+                    if (point > resumePoint.get()) {
+                        resumePoint.set(point);
+                        resumePoints.accept(point);
+                    }
+                });
+    }
+
+    private Cloudinary requireCloudinary() {
+        if (cloudinary == null) {
+            throw new IllegalStateException("Cloudinary not configured");
+        }
+        return cloudinary;
+    }
+}
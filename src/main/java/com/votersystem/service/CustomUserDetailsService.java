@@ -4,7 +4,12 @@ import com.votersystem.entity.Administrator;
 import com.votersystem.entity.Agent;
 import com.votersystem.repository.AdministratorRepository;
 import com.votersystem.repository.AgentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,28 +17,152 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Resolves agents and administrators by mobile number.
+ * Resolved accounts are cached for a bounded time so that authentication and
+ * the user type/ID lookups do not repeat the admin-then-agent queries; entries
+ * are evicted when an AccountChangedEvent is published for the username.
+ * Eviction is local to the node that made the change: other nodes see a block,
+ * status or password change once their entry expires after
+ * security.user-cache.ttl-ms. Beyond security.user-cache.max-size entries the
+ * least recently used account is dropped.
+ * The cached status and token revocation epoch also back TokenRevocationService.
+ */
 @Service
 @Transactional(readOnly = true)
 public class CustomUserDetailsService implements UserDetailsService {
-    
+
     @Autowired
     private AdministratorRepository administratorRepository;
-    
+
     @Autowired
     private AgentRepository agentRepository;
-    
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.user-cache.ttl-ms:300000}")
+    private long cacheTtlMillis;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private Map<String, CachedAccount> accounts;
+
+    private Counter cacheHits;
+
+    private Counter cacheMisses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        accounts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAccount> eldest) {
+                return size() > cacheMaxSize;
+            }
+        });
+        cacheHits = Counter.builder("security.user-cache.requests")
+                .description("Account lookups served from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("security.user-cache.requests")
+                .description("Account lookups that queried the database")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("security.user-cache.size", accounts, Map::size)
+                .description("Cached accounts")
+                .register(meterRegistry);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        
+        CachedAccount account = resolveAccount(username);
+        if (account == null) {
+            throw new UsernameNotFoundException("User not found with username: " + username);
+        }
+        // Hand out a copy: authentication erases the password of the returned instance
+        return User.withUserDetails(account.userDetails).build();
+    }
+
+    // Helper method to get user type
+    public String getUserType(String username) {
+        try {
+            CachedAccount account = resolveAccount(username);
+            return account != null ? account.userType : null;
+        } catch (Exception e) {
+            System.err.println("Error getting user type for username: " + username + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Helper method to get user ID
+    public String getUserId(String username) {
+        CachedAccount account = resolveAccount(username);
+        return account != null ? account.userId : null;
+    }
+
+    /**
+     * Whether the account exists and is active
+     */
+    public boolean isActive(String username) {
+        CachedAccount account = resolveAccount(username);
+        return account != null && account.userDetails.isEnabled();
+    }
+
+    /**
+     * Epoch millis before which the account's tokens were revoked, or null if never
+     */
+    public Long getTokensRevokedBefore(String username) {
+        CachedAccount account = resolveAccount(username);
+        return account != null ? account.tokensRevokedBefore : null;
+    }
+
+    /**
+     * Drop a cached account so the next lookup reads it from the database
+     */
+    public void evict(String username) {
+        if (username != null) {
+            accounts.remove(username);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.getUsername());
+    }
+
+    private CachedAccount resolveAccount(String username) {
+        long now = System.currentTimeMillis();
+        CachedAccount cached = accounts.get(username);
+        if (cached != null && now - cached.loadedAt < cacheTtlMillis) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+
+        CachedAccount account = loadAccount(username, now);
+        if (account == null) {
+            accounts.remove(username);
+            return null;
+        }
+        accounts.put(username, account);
+        return account;
+    }
+
+    private CachedAccount loadAccount(String username, long now) {
         // First, try to find in administrators (using mobile as username)
         Optional<Administrator> adminOptional = administratorRepository.findByMobile(username);
         if (adminOptional.isPresent()) {
             Administrator admin = adminOptional.get();
-            return User.builder()
+            UserDetails userDetails = User.builder()
                     .username(admin.getMobile()) // Use mobile as username
                     .password(admin.getPasswordHash())
                     .authorities(List.of(new SimpleGrantedAuthority("ROLE_" + admin.getRole().name())))
@@ -42,13 +171,15 @@ public class CustomUserDetailsService implements UserDetailsService {
                     .credentialsExpired(false)
                     .disabled(admin.getStatus() != Administrator.AdminStatus.ACTIVE)
                     .build();
+            return new CachedAccount(userDetails, admin.getRole().name(), admin.getId(),
+                    admin.getTokensRevokedBefore(), now);
         }
-        
+
         // Then, try to find in agents (using mobile as username)
         Optional<Agent> agentOptional = agentRepository.findByMobile(username);
         if (agentOptional.isPresent()) {
             Agent agent = agentOptional.get();
-            return User.builder()
+            UserDetails userDetails = User.builder()
                     .username(agent.getMobile()) // Use mobile as username
                     .password(agent.getPasswordHash())
                     .authorities(List.of(new SimpleGrantedAuthority("ROLE_AGENT")))
@@ -57,44 +188,26 @@ public class CustomUserDetailsService implements UserDetailsService {
                     .credentialsExpired(false)
                     .disabled(agent.getStatus() != Agent.AgentStatus.ACTIVE)
                     .build();
+            return new CachedAccount(userDetails, "AGENT", agent.getId(), agent.getTokensRevokedBefore(), now);
         }
-        
-        throw new UsernameNotFoundException("User not found with username: " + username);
+
+        return null;
     }
-    
-    // Helper method to get user type
-    public String getUserType(String username) {
-        try {
-            Optional<Administrator> adminOptional = administratorRepository.findByMobile(username);
-            if (adminOptional.isPresent()) {
-                Administrator admin = adminOptional.get();
-                return admin.getRole().name();
-            }
 
-            Optional<Agent> agentOptional = agentRepository.findByMobile(username);
-            if (agentOptional.isPresent()) {
-                return "AGENT";
-            }
+    private static final class CachedAccount {
+        private final UserDetails userDetails;
+        private final String userType;
+        private final String userId;
+        private final Long tokensRevokedBefore;
+        private final long loadedAt;
 
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error getting user type for username: " + username + ", Error: " + e.getMessage());
-            return null;
-        }
-    }
-    
-    // Helper method to get user ID
-    public String getUserId(String username) {
-        Optional<Administrator> adminOptional = administratorRepository.findByMobile(username);
-        if (adminOptional.isPresent()) {
-            return adminOptional.get().getId();
+        private CachedAccount(UserDetails userDetails, String userType, String userId,
+                              Long tokensRevokedBefore, long loadedAt) {
+            this.userDetails = userDetails;
+            this.userType = userType;
+            this.userId = userId;
+            this.tokensRevokedBefore = tokensRevokedBefore;
+            this.loadedAt = loadedAt;
         }
-        
-        Optional<Agent> agentOptional = agentRepository.findByMobile(username);
-        if (agentOptional.isPresent()) {
-            return agentOptional.get().getId();
-        }
-        
-        return null;
     }
 }
@@ -31,15 +31,8 @@ public class IssueAttachmentService {
                                            IssueAttachment.FileType fileType, String cloudinaryPublicId,
                                            Long fileSize, String mimeType, String uploadedBy) {
         try {
-            IssueAttachment attachment = new IssueAttachment();
-            attachment.setIssue(issue);
-            attachment.setFileName(fileName);
-            attachment.setFileUrl(fileUrl);
-            attachment.setFileType(fileType);
-            attachment.setCloudinaryPublicId(cloudinaryPublicId);
-            attachment.setFileSize(fileSize);
-            attachment.setMimeType(mimeType);
-            attachment.setUploadedBy(uploadedBy);
+            IssueAttachment attachment = buildAttachment(issue, fileName, fileUrl, fileType, cloudinaryPublicId,
+                                                         fileSize, mimeType, uploadedBy);
             
             IssueAttachment savedAttachment = attachmentRepository.save(attachment);
             
@@ -52,6 +45,44 @@ public class IssueAttachmentService {
         }
     }
     
+    /**
+     * Save several attachments of an issue in one transaction
+     */
+    @Transactional
+    public List<IssueAttachment> createAttachments(List<IssueAttachment> attachments) {
+        if (attachments.isEmpty()) {
+            return attachments;
+        }
+        try {
+            List<IssueAttachment> savedAttachments = attachmentRepository.saveAll(attachments);
+            logger.info("Created {} attachments for issue {}", savedAttachments.size(),
+                        savedAttachments.get(0).getIssue().getTicketNumber());
+            return savedAttachments;
+            
+        } catch (Exception e) {
+            logger.error("Failed to create attachments: {}", e.getMessage());
+            throw new RuntimeException("Failed to create attachments", e);
+        }
+    }
+    
+    /**
+     * New (unsaved) attachment entity
+     */
+    public IssueAttachment buildAttachment(Issue issue, String fileName, String fileUrl,
+                                           IssueAttachment.FileType fileType, String cloudinaryPublicId,
+                                           Long fileSize, String mimeType, String uploadedBy) {
+        IssueAttachment attachment = new IssueAttachment();
+        attachment.setIssue(issue);
+        attachment.setFileName(fileName);
+        attachment.setFileUrl(fileUrl);
+        attachment.setFileType(fileType);
+        attachment.setCloudinaryPublicId(cloudinaryPublicId);
+        attachment.setFileSize(fileSize);
+        attachment.setMimeType(mimeType);
+        attachment.setUploadedBy(uploadedBy);
+        return attachment;
+    }
+    
     /**
      * Get attachment by ID
      */
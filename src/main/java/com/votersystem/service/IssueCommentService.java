@@ -33,6 +33,9 @@ public class IssueCommentService {
     @Autowired
     private AdministratorRepository administratorRepository;
     
+    @Autowired
+    private IssueUpdateService issueUpdateService;
+    
     /**
      * Add comment to an issue
      */
@@ -61,6 +64,7 @@ public class IssueCommentService {
             comment.setIsInternal(isInternal != null ? isInternal : false);
             
             IssueComment savedComment = commentRepository.save(comment);
+            issueUpdateService.commentAdded(issue, savedComment, null);
             
             logger.info("Added comment to issue {} by {}", issue.getTicketNumber(), commentedBy);
             return savedComment;
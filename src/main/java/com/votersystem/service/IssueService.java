@@ -3,7 +3,10 @@ package com.votersystem.service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -11,9 +14,12 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,6 +36,8 @@ import com.votersystem.repository.AdministratorRepository;
 import com.votersystem.repository.AgentRepository;
 import com.votersystem.repository.IssueCommentRepository;
 import com.votersystem.repository.IssueRepository;
+import com.votersystem.util.BusinessCalendar;
+import com.votersystem.util.TimeWindow;
 
 /**
  * Service for managing issues in the issue reporting system
@@ -55,10 +63,22 @@ public class IssueService {
     private TicketGenerationService ticketGenerationService;
 
     @Autowired
-    private MediaService mediaService;
+    private MediaIngestionService mediaIngestionService;
 
     @Autowired
-    private IssueAttachmentService attachmentService;
+    private BusinessCalendar businessCalendar;
+
+    @Autowired
+    private IssueUpdateService issueUpdateService;
+
+    @Value("${issues.statistics.cache-ttl-ms:5000}")
+    private long statisticsCacheTtlMillis;
+
+    private final Object statisticsLock = new Object();
+
+    private volatile IssueStatistics cachedStatistics;
+
+    private volatile long cachedStatisticsAt;
     
     /**
      * Create a new issue
@@ -92,9 +112,11 @@ public class IssueService {
     }
 
     /**
-     * Create a new issue with media files
+     * Create a new issue with media files.
+     * The issue is committed first; each file is then staged to local disk and
+     * saved as a PENDING attachment, which MediaIngestionService uploads to
+     * storage in the background.
      */
-    @Transactional
     public Issue createIssueWithMedia(CreateIssueRequest request, List<MultipartFile> files, String agentId) {
         try {
             // Create issue entity
@@ -121,44 +143,33 @@ public class IssueService {
                 issue.setReporterName(agent.get().getFirstName() + " " + agent.get().getLastName());
             }
 
-            // Save issue first
+            // Save (and commit) issue first
             Issue savedIssue = issueRepository.save(issue);
 
-            // Upload and save media files
-            if (files != null && !files.isEmpty()) {
+            // Stage all media files locally in one batch; their uploads to storage
+            // start together in the background once the attachments are committed
+            List<MediaIngestionService.MediaFile> mediaFiles = new ArrayList<>();
+            if (files != null) {
                 for (MultipartFile file : files) {
-                    if (!file.isEmpty()) {
-                        try {
-                            // Determine file type
-                            IssueAttachment.FileType fileType = determineFileType(file);
-
-                            // Upload to Cloudinary
-                            String folder = "issues/" + savedIssue.getTicketNumber();
-                            MediaService.MediaUploadResult uploadResult;
-
-                            if (fileType == IssueAttachment.FileType.IMAGE) {
-                                uploadResult = mediaService.uploadImage(file, folder).join();
-                            } else {
-                                uploadResult = mediaService.uploadVideo(file, folder).join();
-                            }
-
-                            if (uploadResult.isSuccess()) {
-                                // Save attachment record
-                                attachmentService.createAttachment(
-                                    savedIssue, file.getOriginalFilename(), uploadResult.getUrl(),
-                                    fileType, uploadResult.getPublicId(), file.getSize(),
-                                    file.getContentType(), agentId);
-
-                                logger.info("Uploaded {} for issue {}", fileType.name().toLowerCase(), ticketNumber);
-                            } else {
-                                logger.warn("Failed to upload file {} for issue {}: {}",
-                                           file.getOriginalFilename(), ticketNumber, uploadResult.getMessage());
-                            }
-                        } catch (Exception e) {
-                            logger.error("Error uploading file {} for issue {}: {}",
-                                        file.getOriginalFilename(), ticketNumber, e.getMessage());
-                        }
+                    if (file.isEmpty()) {
+                        continue;
+                    }
+                    IssueAttachment.FileType fileType = determineFileType(file);
+                    String error = mediaIngestionService.validationError(file, fileType);
+                    if (error != null) {
+                        logger.warn("Skipping file {} for issue {}: {}", file.getOriginalFilename(), ticketNumber, error);
+                        continue;
                     }
+                    mediaFiles.add(new MediaIngestionService.MediaFile(file, fileType));
+                }
+            }
+            if (!mediaFiles.isEmpty()) {
+                try {
+                    savedIssue.getAttachments().addAll(
+                        mediaIngestionService.stageAll(savedIssue, mediaFiles, agentId));
+                    logger.info("Staged {} media files for issue {}", mediaFiles.size(), ticketNumber);
+                } catch (Exception e) {
+                    logger.error("Error staging media files for issue {}: {}", ticketNumber, e.getMessage());
                 }
             }
 
@@ -293,6 +304,7 @@ public class IssueService {
             
             // Add status change comment
             addStatusChangeComment(issue, oldStatus, newStatus, updatedBy);
+            issueUpdateService.statusChanged(savedIssue, null);
             
             logger.info("Updated issue {} status from {} to {}", issue.getTicketNumber(), oldStatus, newStatus);
             return savedIssue;
@@ -342,6 +354,7 @@ public class IssueService {
             
             // Add reopen comment
             addReopenComment(issue, reopenReason, reopenedBy);
+            issueUpdateService.statusChanged(savedIssue, null);
             
             logger.info("Reopened issue {} by {}", issue.getTicketNumber(), reopenedBy);
             return savedIssue;
@@ -370,6 +383,7 @@ public class IssueService {
             
             // Add comment about estimated date
             addEstimatedDateComment(issue, estimatedDate, updatedBy);
+            issueUpdateService.resolutionDateChanged(savedIssue, null);
             
             logger.info("Set estimated resolution date for issue {} to {}", issue.getTicketNumber(), estimatedDate);
             return savedIssue;
@@ -388,27 +402,55 @@ public class IssueService {
     }
     
     /**
-     * Get issue statistics
+     * Get issue statistics.
+     * All counters come from a single aggregate query; the result is reused for
+     * issues.statistics.cache-ttl-ms so polling dashboards share one database hit.
      */
     public IssueStatistics getIssueStatistics() {
-        IssueStatistics stats = new IssueStatistics();
-
-        stats.setTotalIssues(issueRepository.count());
-        stats.setOpenIssues(issueRepository.countByStatus(Issue.IssueStatus.OPEN));
-        stats.setInProgressIssues(issueRepository.countByStatus(Issue.IssueStatus.IN_PROGRESS));
-        stats.setResolvedIssues(issueRepository.countByStatus(Issue.IssueStatus.RESOLVED));
-        stats.setClosedIssues(issueRepository.countByStatus(Issue.IssueStatus.CLOSED));
-        stats.setReopenedIssues(issueRepository.countByStatus(Issue.IssueStatus.REOPENED));
-
-        stats.setIssuesToday(issueRepository.findIssuesToday().size());
-        stats.setIssuesThisWeek(issueRepository.findIssuesThisWeek(LocalDateTime.now().minusDays(7)).size());
-        stats.setIssuesThisMonth(issueRepository.findIssuesThisMonth().size());
+        if (statisticsCacheTtlMillis <= 0) {
+            return loadIssueStatistics();
+        }
+        IssueStatistics cached = cachedStatistics;
+        if (cached != null && System.currentTimeMillis() - cachedStatisticsAt < statisticsCacheTtlMillis) {
+            return cached;
+        }
+        synchronized (statisticsLock) {
+            // Another caller may have refreshed it while we waited
+            if (cachedStatistics != null && System.currentTimeMillis() - cachedStatisticsAt < statisticsCacheTtlMillis) {
+                return cachedStatistics;
+            }
+            IssueStatistics stats = loadIssueStatistics();
+            cachedStatisticsAt = System.currentTimeMillis();
+            cachedStatistics = stats;
+            return stats;
+        }
+    }
 
-        stats.setOverdueIssues(issueRepository.findOverdueIssues().size());
+    private IssueStatistics loadIssueStatistics() {
+        TimeWindow today = businessCalendar.todayWindow();
+        TimeWindow thisMonth = businessCalendar.currentMonthWindow();
+        List<Object[]> rows = issueRepository.getIssueStatisticsCounters(today.getStart(), today.getEnd(),
+                LocalDateTime.now().minusDays(7), thisMonth.getStart(), thisMonth.getEnd(), businessCalendar.today());
+        Object[] counters = rows.get(0);
 
+        IssueStatistics stats = new IssueStatistics();
+        stats.setTotalIssues(toLong(counters[0]));
+        stats.setOpenIssues(toLong(counters[1]));
+        stats.setInProgressIssues(toLong(counters[2]));
+        stats.setResolvedIssues(toLong(counters[3]));
+        stats.setClosedIssues(toLong(counters[4]));
+        stats.setReopenedIssues(toLong(counters[5]));
+        stats.setIssuesToday(toLong(counters[6]));
+        stats.setIssuesThisWeek(toLong(counters[7]));
+        stats.setIssuesThisMonth(toLong(counters[8]));
+        stats.setOverdueIssues(toLong(counters[9]));
         return stats;
     }
 
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
     /**
      * Get issues with address for location view
      */
@@ -522,85 +564,41 @@ public class IssueService {
                 return new PageImpl<>(new ArrayList<>(), pageable, 0);
             }
 
-            // Extract both agent IDs and mobile numbers for dual lookup
-            List<String> agentIds = subAdminAgents.stream()
-                    .map(Agent::getId)
-                    .collect(Collectors.toList());
-
-            List<String> agentMobiles = subAdminAgents.stream()
-                    .map(Agent::getMobile)
-                    .collect(Collectors.toList());
-
-            // Parse date filters
-            final LocalDateTime fromDate = (dateFrom != null && !dateFrom.isEmpty())
-                ? LocalDateTime.parse(dateFrom + "T00:00:00") : null;
-            final LocalDateTime toDate = (dateTo != null && !dateTo.isEmpty())
-                ? LocalDateTime.parse(dateTo + "T23:59:59") : null;
-
-            logger.info("SubAdmin {} searching for issues from {} agents (IDs: {}, Mobiles: {})",
-                       subAdminUsername, subAdminAgents.size(), agentIds, agentMobiles);
-
-            // DUAL LOOKUP: Search by both agent IDs (new issues) and mobile numbers (old issues)
-            List<Issue> allIssues = new ArrayList<>();
-
-            // Search by agent IDs (new format)
-            for (String agentId : agentIds) {
-                List<Issue> agentIssues = issueRepository.findByReportedBy(agentId);
-                allIssues.addAll(agentIssues);
-                logger.debug("Found {} issues for agent ID: {}", agentIssues.size(), agentId);
+            // DUAL LOOKUP: issues reference agent IDs (new issues) or mobile numbers (old issues)
+            Map<String, Agent> agentsByReporter = new HashMap<>();
+            for (Agent agent : subAdminAgents) {
+                agentsByReporter.put(agent.getId(), agent);
+                if (agent.getMobile() != null) {
+                    agentsByReporter.putIfAbsent(agent.getMobile(), agent);
+                }
             }
 
-            // Search by mobile numbers (old format) - avoid duplicates
-            Set<Long> existingIssueIds = allIssues.stream()
-                    .map(Issue::getId)
-                    .collect(Collectors.toSet());
-
-            for (String mobile : agentMobiles) {
-                List<Issue> mobileIssues = issueRepository.findByReportedBy(mobile);
-                for (Issue issue : mobileIssues) {
-                    if (!existingIssueIds.contains(issue.getId())) {
-                        allIssues.add(issue);
-                        existingIssueIds.add(issue.getId());
-                    }
-                }
-                logger.debug("Found {} issues for mobile: {}", mobileIssues.size(), mobile);
+            Issue.IssueStatus statusFilter;
+            Issue.IssueCategory categoryFilter;
+            Issue.IssuePriority priorityFilter;
+            try {
+                statusFilter = hasText(status) ? Issue.IssueStatus.valueOf(status) : null;
+                categoryFilter = hasText(category) ? Issue.IssueCategory.valueOf(category) : null;
+                priorityFilter = hasText(priority) ? Issue.IssuePriority.valueOf(priority) : null;
+            } catch (IllegalArgumentException e) {
+                // Unknown filter value: nothing can match
+                return new PageImpl<>(new ArrayList<>(), pageable, 0);
             }
 
-            logger.info("Total issues found for sub-admin {}: {}", subAdminUsername, allIssues.size());
-
-            // Apply filters manually (this could be optimized with a custom query later)
-            List<Issue> filteredIssues = allIssues.stream()
-                .filter(issue -> status == null || status.isEmpty() || issue.getStatus().name().equals(status))
-                .filter(issue -> category == null || category.isEmpty() || issue.getCategory().name().equals(category))
-                .filter(issue -> priority == null || priority.isEmpty() || issue.getPriority().name().equals(priority))
-                .filter(issue -> fromDate == null || !issue.getSubmissionDate().isBefore(fromDate))
-                .filter(issue -> toDate == null || !issue.getSubmissionDate().isAfter(toDate))
-                .filter(issue -> search == null || search.isEmpty() ||
-                    issue.getTitle().toLowerCase().contains(search.toLowerCase()) ||
-                    issue.getDescription().toLowerCase().contains(search.toLowerCase()) ||
-                    issue.getTicketNumber().toLowerCase().contains(search.toLowerCase()))
-                .collect(Collectors.toList());
-
-            // Convert to Page (simple implementation)
-            int start = (int) pageable.getOffset();
-            int end = Math.min((start + pageable.getPageSize()), filteredIssues.size());
-            List<Issue> pageContent = filteredIssues.subList(start, end);
+            // Date filters cover whole days: [dateFrom 00:00, dateTo + 1 day 00:00)
+            LocalDateTime fromDate = hasText(dateFrom) ? LocalDate.parse(dateFrom).atStartOfDay() : null;
+            LocalDateTime toDate = hasText(dateTo) ? LocalDate.parse(dateTo).plusDays(1).atStartOfDay() : null;
 
-            // Convert to IssueResponse with agent information
-            List<IssueResponse> responseList = pageContent.stream()
-                .map(issue -> {
-                    // Find the agent for this issue
-                    Agent agent = subAdminAgents.stream()
-                        .filter(a -> a.getId().equals(issue.getReportedBy()) ||
-                                   a.getMobile().equals(issue.getReportedBy()))
-                        .findFirst()
-                        .orElse(null);
+            // Filtering, sorting, paging and counting all happen in the database
+            Page<Issue> issues = issueRepository.findIssuesByReportersWithFilters(agentsByReporter.keySet(),
+                    statusFilter, categoryFilter, priorityFilter, fromDate, toDate,
+                    hasText(search) ? search : null, subAdminIssueSort(pageable));
 
-                    return new IssueResponse(issue, agent);
-                })
-                .collect(Collectors.toList());
+            logger.debug("SubAdmin {}: {} of {} matching issues from {} agents", subAdminUsername,
+                    issues.getNumberOfElements(), issues.getTotalElements(), subAdminAgents.size());
 
-            return new PageImpl<>(responseList, pageable, filteredIssues.size());
+            // Convert to IssueResponse with agent information
+            return issues.map(issue -> new IssueResponse(issue, agentsByReporter.get(issue.getReportedBy())));
 
         } catch (Exception e) {
             logger.error("Error getting issues for sub-admin: {}", subAdminUsername, e);
@@ -608,80 +606,48 @@ public class IssueService {
         }
     }
 
-    /**
-     * Get issue by ID for sub-admin (only if it belongs to their agent)
-     */
-    public IssueResponse getIssueByIdForSubAdmin(String issueId, String subAdminUsername) {
-        Optional<Issue> issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        if (issueOpt.isEmpty()) {
-            throw new RuntimeException("Issue not found");
-        }
-        Issue issue = issueOpt.get();
-
-        // Check if the issue belongs to an agent created by this sub-admin
-        // PRODUCTION-READY: Handle both agent ID and mobile number formats
-        Agent agent = null;
+    // Sortable properties of the sub-admin listing; anything else falls back to newest first
+    private static final Set<String> SUB_ADMIN_SORT_PROPERTIES = Set.of(
+            "submissionDate", "createdAt", "updatedAt", "status", "priority", "category", "ticketNumber", "id");
 
-        // Try to find agent by ID first (new format)
-        Optional<Agent> agentOpt = agentRepository.findById(issue.getReportedBy());
-        if (agentOpt.isPresent()) {
-            agent = agentOpt.get();
-        } else {
-            // Try to find agent by mobile number (old format)
-            agentOpt = agentRepository.findByMobile(issue.getReportedBy());
-            if (agentOpt.isPresent()) {
-                agent = agentOpt.get();
-            }
+    private static Pageable subAdminIssueSort(Pageable pageable) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .filter(order -> SUB_ADMIN_SORT_PROPERTIES.contains(order.getProperty()))
+                .collect(Collectors.toList()));
+        if (sort.isUnsorted()) {
+            sort = Sort.by(Sort.Direction.DESC, "submissionDate");
         }
-
-        if (agent == null) {
-            throw new RuntimeException("Agent not found for reportedBy: " + issue.getReportedBy());
+        if (sort.getOrderFor("id") == null) {
+            // Stable paging when sort values tie
+            sort = sort.and(Sort.by(Sort.Direction.DESC, "id"));
         }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
 
-        if (!subAdminUsername.equals(agent.getCreatedBy())) {
-            throw new RuntimeException("Access denied: Issue does not belong to your agents");
-        }
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
 
-        return new IssueResponse(issue);
+    /**
+     * Get issue by ID for sub-admin (only if it belongs to their agent)
+     */
+    @Transactional(readOnly = true)
+    public IssueResponse getIssueByIdForSubAdmin(String issueId, String subAdminUsername) {
+        SubAdminIssue owned = loadIssueForSubAdmin(issueId, subAdminUsername);
+        return new IssueResponse(owned.issue);
     }
 
     /**
      * Update issue status for sub-admin
      */
+    @Transactional
     public IssueResponse updateIssueStatusForSubAdmin(String issueId, String newStatus, String subAdminUsername) {
-        Optional<Issue> issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        if (issueOpt.isEmpty()) {
-            throw new RuntimeException("Issue not found");
-        }
-        Issue issue = issueOpt.get();
+        SubAdminIssue owned = loadIssueForSubAdmin(issueId, subAdminUsername);
+        Issue issue = owned.issue;
 
-        // Check if the issue belongs to an agent created by this sub-admin
-        // PRODUCTION-READY: Handle both agent ID and mobile number formats
-        Agent agent = null;
-
-        // Try to find agent by ID first (new format)
-        Optional<Agent> agentOpt = agentRepository.findById(issue.getReportedBy());
-        if (agentOpt.isPresent()) {
-            agent = agentOpt.get();
-        } else {
-            // Try to find agent by mobile number (old format)
-            agentOpt = agentRepository.findByMobile(issue.getReportedBy());
-            if (agentOpt.isPresent()) {
-                agent = agentOpt.get();
-            }
-        }
-
-        if (agent == null) {
-            throw new RuntimeException("Agent not found for reportedBy: " + issue.getReportedBy());
-        }
-
-        if (!subAdminUsername.equals(agent.getCreatedBy())) {
-            throw new RuntimeException("Access denied: Issue does not belong to your agents");
-        }
-
-        String oldStatus = issue.getStatus().toString();
         issue.setStatus(Issue.IssueStatus.valueOf(newStatus));
         issue = issueRepository.save(issue);
+        issueUpdateService.statusChanged(issue, owned.agent);
 
         return new IssueResponse(issue);
     }
@@ -689,12 +655,10 @@ public class IssueService {
     /**
      * Add comment for agent
      */
+    @Transactional
     public IssueResponse addCommentForAgent(String issueId, String comment, String agentId) {
-        Optional<Issue> issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        if (issueOpt.isEmpty()) {
-            throw new RuntimeException("Issue not found");
-        }
-        Issue issue = issueOpt.get();
+        Issue issue = issueRepository.findWithAttachmentsById(Long.parseLong(issueId))
+                .orElseThrow(() -> new RuntimeException("Issue not found"));
 
         // Check if the issue belongs to this agent
         if (!agentId.equals(issue.getReportedBy())) {
@@ -702,7 +666,8 @@ public class IssueService {
         }
 
         // Get agent name for the comment
-        String commenterName = getAgentCommenterName(agentId);
+        Agent agent = agentRepository.findById(agentId).orElse(null);
+        String commenterName = agent != null ? agent.getFirstName() + " " + agent.getLastName() : agentId;
 
         IssueComment issueComment = new IssueComment();
         issueComment.setIssue(issue);
@@ -713,46 +678,19 @@ public class IssueService {
         issueComment.setIsInternal(false);
 
         issueCommentRepository.save(issueComment);
+        issueUpdateService.commentAdded(issue, issueComment, agent);
 
-        // Reload issue with comments
-        issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        issue = issueOpt.get();
+        // Comments are not loaded yet, so the response reads them including the new one
         return new IssueResponse(issue);
     }
 
     /**
      * Add comment for sub-admin
      */
+    @Transactional
     public IssueResponse addCommentForSubAdmin(String issueId, String comment, String subAdminUsername) {
-        Optional<Issue> issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        if (issueOpt.isEmpty()) {
-            throw new RuntimeException("Issue not found");
-        }
-        Issue issue = issueOpt.get();
-
-        // Check if the issue belongs to an agent created by this sub-admin
-        // PRODUCTION-READY: Handle both agent ID and mobile number formats
-        Agent agent = null;
-
-        // Try to find agent by ID first (new format)
-        Optional<Agent> agentOpt = agentRepository.findById(issue.getReportedBy());
-        if (agentOpt.isPresent()) {
-            agent = agentOpt.get();
-        } else {
-            // Try to find agent by mobile number (old format)
-            agentOpt = agentRepository.findByMobile(issue.getReportedBy());
-            if (agentOpt.isPresent()) {
-                agent = agentOpt.get();
-            }
-        }
-
-        if (agent == null) {
-            throw new RuntimeException("Agent not found for reportedBy: " + issue.getReportedBy());
-        }
-
-        if (!subAdminUsername.equals(agent.getCreatedBy())) {
-            throw new RuntimeException("Access denied: Issue does not belong to your agents");
-        }
+        SubAdminIssue owned = loadIssueForSubAdmin(issueId, subAdminUsername);
+        Issue issue = owned.issue;
 
         // Get sub-admin name for the comment
         String commenterName = getCommenterName(subAdminUsername);
@@ -766,39 +704,41 @@ public class IssueService {
         issueComment.setIsInternal(false);
 
         issueCommentRepository.save(issueComment);
+        issueUpdateService.commentAdded(issue, issueComment, owned.agent);
 
-        // Reload issue with comments
-        issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        issue = issueOpt.get();
+        // Comments are not loaded yet, so the response reads them including the new one
         return new IssueResponse(issue);
     }
 
     /**
      * Set resolution date for sub-admin
      */
+    @Transactional
     public IssueResponse setResolutionDateForSubAdmin(String issueId, String resolutionDate, String subAdminUsername) {
-        Optional<Issue> issueOpt = issueRepository.findById(Long.parseLong(issueId));
-        if (issueOpt.isEmpty()) {
-            throw new RuntimeException("Issue not found");
-        }
-        Issue issue = issueOpt.get();
-
-        // Check if the issue belongs to an agent created by this sub-admin
-        // PRODUCTION-READY: Handle both agent ID and mobile number formats
-        Agent agent = null;
+        SubAdminIssue owned = loadIssueForSubAdmin(issueId, subAdminUsername);
+        Issue issue = owned.issue;
 
-        // Try to find agent by ID first (new format)
-        Optional<Agent> agentOpt = agentRepository.findById(issue.getReportedBy());
-        if (agentOpt.isPresent()) {
-            agent = agentOpt.get();
+        if (resolutionDate != null && !resolutionDate.isEmpty()) {
+            issue.setActualResolutionDate(java.time.LocalDate.parse(resolutionDate));
         } else {
-            // Try to find agent by mobile number (old format)
-            agentOpt = agentRepository.findByMobile(issue.getReportedBy());
-            if (agentOpt.isPresent()) {
-                agent = agentOpt.get();
-            }
+            issue.setActualResolutionDate(null);
         }
 
+        issue = issueRepository.save(issue);
+        issueUpdateService.resolutionDateChanged(issue, owned.agent);
+        return new IssueResponse(issue);
+    }
+
+    /**
+     * Load an issue (with its attachments) and its reporting agent, and check that the
+     * agent was created by the sub-admin. Comments are left to a single lazy load.
+     */
+    private SubAdminIssue loadIssueForSubAdmin(String issueId, String subAdminUsername) {
+        Issue issue = issueRepository.findWithAttachmentsById(Long.parseLong(issueId))
+                .orElseThrow(() -> new RuntimeException("Issue not found"));
+
+        // PRODUCTION-READY: reportedBy is an agent ID (new issues) or mobile number (old issues)
+        Agent agent = findReportingAgents(List.of(issue.getReportedBy())).get(issue.getReportedBy());
         if (agent == null) {
             throw new RuntimeException("Agent not found for reportedBy: " + issue.getReportedBy());
         }
@@ -806,15 +746,65 @@ public class IssueService {
         if (!subAdminUsername.equals(agent.getCreatedBy())) {
             throw new RuntimeException("Access denied: Issue does not belong to your agents");
         }
+        return new SubAdminIssue(issue, agent);
+    }
 
-        if (resolutionDate != null && !resolutionDate.isEmpty()) {
-            issue.setActualResolutionDate(java.time.LocalDate.parse(resolutionDate));
-        } else {
-            issue.setActualResolutionDate(null);
+    /**
+     * Reporting agents keyed by reportedBy value, resolved by agent ID or (older issues)
+     * mobile number in one query
+     */
+    private Map<String, Agent> findReportingAgents(Collection<String> reporters) {
+        Map<String, Agent> agents = new HashMap<>();
+        if (reporters.isEmpty()) {
+            return agents;
+        }
+        List<Agent> found = agentRepository.findByIdInOrMobileIn(reporters, reporters);
+        // Agent ID matches take precedence over mobile matches
+        for (Agent agent : found) {
+            if (agent.getMobile() != null && reporters.contains(agent.getMobile())) {
+                agents.putIfAbsent(agent.getMobile(), agent);
+            }
+        }
+        for (Agent agent : found) {
+            if (reporters.contains(agent.getId())) {
+                agents.put(agent.getId(), agent);
+            }
         }
+        return agents;
+    }
 
-        issue = issueRepository.save(issue);
-        return new IssueResponse(issue);
+    /**
+     * Responses for a page of issues with their reporting agents. Agents come from one
+     * query and attachments/comments are batch-loaded, so the query count does not grow
+     * with the page size.
+     */
+    @Transactional(readOnly = true)
+    public Page<IssueResponse> toResponsesWithAgents(Page<Issue> issues) {
+        Set<String> reporters = issues.stream()
+                .map(Issue::getReportedBy)
+                .filter(reportedBy -> reportedBy != null)
+                .collect(Collectors.toSet());
+        Map<String, Agent> agents = findReportingAgents(reporters);
+        return issues.map(issue -> new IssueResponse(issue, agents.get(issue.getReportedBy())));
+    }
+
+    /**
+     * Issue with its attachments, comments and reporting agent
+     */
+    @Transactional(readOnly = true)
+    public Optional<IssueResponse> getIssueResponseWithAgent(Long issueId) {
+        return issueRepository.findWithAttachmentsById(issueId).map(issue -> new IssueResponse(issue,
+                findReportingAgents(List.of(issue.getReportedBy())).get(issue.getReportedBy())));
+    }
+
+    private static final class SubAdminIssue {
+        private final Issue issue;
+        private final Agent agent;
+
+        private SubAdminIssue(Issue issue, Agent agent) {
+            this.issue = issue;
+            this.agent = agent;
+        }
     }
 
     /**
@@ -928,27 +918,6 @@ public class IssueService {
         }
     }
 
-    /**
-     * Get agent commenter name from agent ID
-     */
-    private String getAgentCommenterName(String agentId) {
-        try {
-            // Try to get from Agent table
-            Optional<Agent> agentOpt = agentRepository.findById(agentId);
-            if (agentOpt.isPresent()) {
-                Agent agent = agentOpt.get();
-                return agent.getFirstName() + " " + agent.getLastName();
-            }
-
-            // If not found, return agent ID
-            return agentId;
-
-        } catch (Exception e) {
-            logger.warn("Failed to get agent commenter name for {}: {}", agentId, e.getMessage());
-            return agentId;
-        }
-    }
-
     /**
      * Get updated issues for agent since timestamp (for polling)
      */
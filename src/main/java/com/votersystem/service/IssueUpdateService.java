@@ -0,0 +1,260 @@
+package com.votersystem.service;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.votersystem.dto.IssueUpdateFeedResponse;
+import com.votersystem.dto.IssueUpdateMessage;
+import com.votersystem.entity.Agent;
+import com.votersystem.entity.Issue;
+import com.votersystem.entity.IssueComment;
+import com.votersystem.repository.AgentRepository;
+
+/**
+ * Issue updates for agents.
+ * Status changes, public comments and resolution-date edits of an agent's
+ * issues are appended to issue_update_events and pushed to the agent's
+ * /user/queue/issues once the change commits. Each update gets the next value
+ * of a per-agent counter (agent_seq), which is the client cursor: the counter
+ * row stays locked until the recording transaction ends, so one agent's
+ * updates commit in cursor order and a client that has seen N can never miss
+ * an update numbered below N. A reconnecting client fetches only the updates
+ * after its last cursor
+ * instead of polling for whole issues.
+ */
+@Service
+public class IssueUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueUpdateService.class);
+
+    public static final String USER_QUEUE = "/queue/issues";
+
+    private static final String TABLE_NAME = "issue_update_events";
+
+    private static final String CURSOR_TABLE = "issue_update_cursors";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO " + TABLE_NAME + " (agent_id, agent_seq, issue_id, ticket_number, update_type, status, " +
+            "estimated_resolution_date, actual_resolution_date, comment, commenter_name, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Takes the row lock that serializes an agent's recording transactions until commit
+    private static final String NEXT_CURSOR_SQL =
+            "INSERT INTO " + CURSOR_TABLE + " (agent_id, last_seq) VALUES (?, 1) " +
+            "ON DUPLICATE KEY UPDATE last_seq = last_seq + 1";
+
+    private static final String SELECT_CURSOR_SQL =
+            "SELECT last_seq FROM " + CURSOR_TABLE + " WHERE agent_id = ?";
+
+    private static final String SELECT_AFTER_SQL =
+            "SELECT agent_seq, issue_id, ticket_number, update_type, status, estimated_resolution_date, " +
+            "actual_resolution_date, comment, commenter_name, created_at FROM " + TABLE_NAME + " " +
+            "WHERE agent_id = ? AND agent_seq > ? ORDER BY agent_seq LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${issues.updates.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${issues.updates.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Create the update and cursor tables if needed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "seq BIGINT NOT NULL AUTO_INCREMENT, " +
+                    "agent_id VARCHAR(20) NOT NULL, " +
+                    "agent_seq BIGINT NOT NULL, " +
+                    "issue_id BIGINT NOT NULL, " +
+                    "ticket_number VARCHAR(20), " +
+                    "update_type VARCHAR(30) NOT NULL, " +
+                    "status VARCHAR(20), " +
+                    "estimated_resolution_date DATE, " +
+                    "actual_resolution_date DATE, " +
+                    "comment TEXT, " +
+                    "commenter_name VARCHAR(255), " +
+                    "created_at DATETIME NOT NULL, " +
+                    "PRIMARY KEY (seq), " +
+                    "UNIQUE INDEX uk_issue_update_events_agent_seq (agent_id, agent_seq), " +
+                    "INDEX idx_issue_update_events_created_at (created_at)" +
+                    ") ENGINE=InnoDB");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + CURSOR_TABLE + " (" +
+                    "agent_id VARCHAR(20) NOT NULL PRIMARY KEY, " +
+                    "last_seq BIGINT NOT NULL" +
+                    ") ENGINE=InnoDB");
+        } catch (Exception e) {
+            logger.error("Error initializing issue update events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a status change of an issue
+     */
+    @Transactional
+    public void statusChanged(Issue issue, Agent reporter) {
+        record(new IssueUpdateMessage(IssueUpdateMessage.UpdateType.STATUS_CHANGED, issue), issue, reporter);
+    }
+
+    /**
+     * Record an estimated or actual resolution date change of an issue
+     */
+    @Transactional
+    public void resolutionDateChanged(Issue issue, Agent reporter) {
+        record(new IssueUpdateMessage(IssueUpdateMessage.UpdateType.RESOLUTION_DATE_CHANGED, issue), issue, reporter);
+    }
+
+    /**
+     * Record a comment on an issue; internal comments are not visible to agents
+     */
+    @Transactional
+    public void commentAdded(Issue issue, IssueComment comment, Agent reporter) {
+        if (Boolean.TRUE.equals(comment.getIsInternal())) {
+            return;
+        }
+        IssueUpdateMessage message = new IssueUpdateMessage(IssueUpdateMessage.UpdateType.COMMENT_ADDED, issue);
+        message.setComment(comment.getComment());
+        message.setCommenterName(comment.getCommenterName());
+        record(message, issue, reporter);
+    }
+
+    /**
+     * Updates of an agent's issues after the given cursor, oldest first
+     */
+    public IssueUpdateFeedResponse getUpdatesAfter(String agentId, long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<IssueUpdateMessage> updates = jdbcTemplate.query(SELECT_AFTER_SQL,
+                (rs, rowNum) -> toMessage(rs), agentId, cursor, pageSize + 1);
+
+        boolean hasMore = updates.size() > pageSize;
+        if (hasMore) {
+            updates = updates.subList(0, pageSize);
+        }
+        long nextCursor = updates.isEmpty() ? cursor : updates.get(updates.size() - 1).getSeq();
+
+        // Updates after the cursor may have been pruned
+        boolean resyncRequired = false;
+        if (cursor > 0) {
+            Long oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(agent_seq) FROM " + TABLE_NAME + " WHERE agent_id = ?", Long.class, agentId);
+            long firstAvailable = oldest != null ? oldest : getLatestCursor(agentId) + 1;
+            resyncRequired = cursor < firstAvailable - 1;
+        }
+        return new IssueUpdateFeedResponse(updates, nextCursor, hasMore, resyncRequired);
+    }
+
+    /**
+     * Latest cursor of an agent, for clients that just loaded the full issue list
+     */
+    public long getLatestCursor(String agentId) {
+        List<Long> latest = jdbcTemplate.queryForList(SELECT_CURSOR_SQL, Long.class, agentId);
+        return latest.isEmpty() ? 0L : latest.get(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIssueUpdated(IssueUpdatedEvent event) {
+        try {
+            messagingTemplate.convertAndSendToUser(event.getUsername(), USER_QUEUE, event.getMessage());
+        } catch (Exception e) {
+            // The client picks the update up from the feed on its next reconnect
+            logger.error("Error pushing issue update to {}: {}", event.getUsername(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop updates older than the retention period
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void pruneOldUpdates() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM " + TABLE_NAME + " WHERE created_at < ?",
+                    Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+            if (deleted > 0) {
+                logger.info("Pruned {} issue update events", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error pruning issue update events: {}", e.getMessage());
+        }
+    }
+
+    private void record(IssueUpdateMessage message, Issue issue, Agent reporter) {
+        Agent agent = reporter != null ? reporter : findReporter(issue.getReportedBy()).orElse(null);
+        if (agent == null) {
+            logger.warn("No agent found for issue {} reported by {}", issue.getTicketNumber(), issue.getReportedBy());
+            return;
+        }
+        message.setTimestamp(LocalDateTime.now());
+
+        // Joins the caller's transaction, so the update is only visible if the change commits;
+        // the cursor row stays locked until then, so a later update cannot commit first
+        jdbcTemplate.update(NEXT_CURSOR_SQL, agent.getId());
+        long agentSeq = jdbcTemplate.queryForObject(SELECT_CURSOR_SQL, Long.class, agent.getId());
+        jdbcTemplate.update(INSERT_SQL, agent.getId(), agentSeq, message.getIssueId(), message.getTicketNumber(),
+                message.getType().name(), message.getStatus() != null ? message.getStatus().name() : null,
+                message.getEstimatedResolutionDate() != null ? Date.valueOf(message.getEstimatedResolutionDate()) : null,
+                message.getActualResolutionDate() != null ? Date.valueOf(message.getActualResolutionDate()) : null,
+                message.getComment(), message.getCommenterName(), Timestamp.valueOf(message.getTimestamp()));
+        message.setSeq(agentSeq);
+
+        eventPublisher.publishEvent(new IssueUpdatedEvent(agent.getMobile(), message));
+    }
+
+    // reportedBy holds the agent ID, or the mobile number for older issues
+    private Optional<Agent> findReporter(String reportedBy) {
+        if (reportedBy == null) {
+            return Optional.empty();
+        }
+        Optional<Agent> agent = agentRepository.findById(reportedBy);
+        return agent.isPresent() ? agent : agentRepository.findByMobile(reportedBy);
+    }
+
+    private static IssueUpdateMessage toMessage(ResultSet rs) throws SQLException {
+        IssueUpdateMessage message = new IssueUpdateMessage();
+        message.setSeq(rs.getLong("agent_seq"));
+        message.setType(IssueUpdateMessage.UpdateType.valueOf(rs.getString("update_type")));
+        message.setIssueId(rs.getLong("issue_id"));
+        message.setTicketNumber(rs.getString("ticket_number"));
+        String status = rs.getString("status");
+        message.setStatus(status != null ? Issue.IssueStatus.valueOf(status) : null);
+        Date estimated = rs.getDate("estimated_resolution_date");
+        message.setEstimatedResolutionDate(estimated != null ? estimated.toLocalDate() : null);
+        Date actual = rs.getDate("actual_resolution_date");
+        message.setActualResolutionDate(actual != null ? actual.toLocalDate() : null);
+        message.setComment(rs.getString("comment"));
+        message.setCommenterName(rs.getString("commenter_name"));
+        message.setTimestamp(rs.getTimestamp("created_at").toLocalDateTime());
+        return message;
+    }
+}
@@ -0,0 +1,27 @@
+package com.votersystem.service;
+
+import com.votersystem.dto.IssueUpdateMessage;
+
+/**
+ * Published when a change to an agent's issue has been recorded.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class IssueUpdatedEvent {
+
+    private final String username;
+
+    private final IssueUpdateMessage message;
+
+    public IssueUpdatedEvent(String username, IssueUpdateMessage message) {
+        this.username = username;
+        this.message = message;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public IssueUpdateMessage getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,56 @@
+package com.votersystem.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Local filesystem stand-in for Cloudinary (media.storage.type=local).
+ * Files are copied below media.storage.local.dir; the public ID is the path
+ * relative to that directory and the URL is media.storage.local.base-url plus
+ * that path (a file: URI when no base URL is set).
+ */
+@Service
+@ConditionalOnProperty(name = "media.storage.type", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    @Value("${media.storage.local.dir:./uploads/media}")
+    private String storageDir;
+
+    @Value("${media.storage.local.base-url:}")
+    private String baseUrl;
+
+    @Override
+    public StoredMedia store(Path file, String folder, String resourceType,
+                             long resumeOffset, LongConsumer resumePoints) throws IOException {
+        // A local copy is cheap to redo, so it always starts from the beginning
+        String publicId = folder + "/" + file.getFileName();
+        Path target = resolve(publicId);
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+
+        String url = baseUrl.isEmpty() ? target.toUri().toString() : baseUrl + "/" + publicId;
+        return new StoredMedia(url, publicId);
+    }
+
+    @Override
+    public boolean delete(String publicId, String resourceType) throws IOException {
+        return Files.deleteIfExists(resolve(publicId));
+    }
+
+    private Path resolve(String publicId) {
+        Path root = Paths.get(storageDir).toAbsolutePath().normalize();
+        Path target = root.resolve(publicId).normalize();
+        if (!target.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid media path: " + publicId);
+        }
+        return target;
+    }
+}
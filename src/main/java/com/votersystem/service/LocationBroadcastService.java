@@ -0,0 +1,180 @@
+package com.votersystem.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.votersystem.dto.AgentLocationResponse;
+import com.votersystem.entity.Agent;
+
+/**
+ * Fans agent location updates out to admin dashboards.
+ *
+ * Updates are published to the master topic and to a per-admin topic derived
+ * from Agent.createdBy, so a sub-admin only receives its own agents. Optionally
+ * updates are aggregated per tick into one frame per topic, and/or reduced to
+ * the fields that changed since the agent's previous frame (delta mode, with a
+ * periodic full keyframe per agent).
+ */
+@Service
+public class LocationBroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationBroadcastService.class);
+
+    public static final String LEGACY_UPDATES_TOPIC = "/topic/location/updates";
+    public static final String MASTER_BATCH_TOPIC = "/topic/location/batch";
+    public static final String ADMIN_TOPIC_PREFIX = "/topic/location/admin/";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private LocationWriteBehindService locationWriteBehindService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${location.broadcast.legacy-topic-enabled:false}")
+    private boolean legacyTopicEnabled;
+
+    @Value("${location.broadcast.aggregate:true}")
+    private boolean aggregate;
+
+    @Value("${location.broadcast.delta:false}")
+    private boolean delta;
+
+    @Value("${location.broadcast.keyframe-interval-ms:30000}")
+    private long keyframeIntervalMillis;
+
+    // Latest update per agent within the current tick
+    private final Map<String, AgentLocationResponse> pendingUpdates = new ConcurrentHashMap<>();
+
+    // Last frame sent per agent (delta baseline) and when its last full frame went out
+    private final Map<String, Map<String, Object>> lastSentFrames = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastKeyframes = new ConcurrentHashMap<>();
+
+    /**
+     * Per-admin topic for single updates
+     */
+    public static String adminUpdatesTopic(String adminUsername) {
+        return ADMIN_TOPIC_PREFIX + adminUsername + "/updates";
+    }
+
+    /**
+     * Per-admin topic for aggregated frames
+     */
+    public static String adminBatchTopic(String adminUsername) {
+        return ADMIN_TOPIC_PREFIX + adminUsername + "/batch";
+    }
+
+    /**
+     * Publish a location update for an agent
+     */
+    public void publish(AgentLocationResponse response) {
+        if (legacyTopicEnabled) {
+            messagingTemplate.convertAndSend(LEGACY_UPDATES_TOPIC, response);
+        }
+
+        if (aggregate) {
+            // Coalesce: only the newest position of an agent within a tick is sent
+            pendingUpdates.put(response.getAgentId(), response);
+            return;
+        }
+
+        Object frame = toFrame(response);
+        String admin = adminOf(response.getAgentId());
+        if (admin != null) {
+            messagingTemplate.convertAndSend(adminUpdatesTopic(admin), frame);
+        }
+    }
+
+    /**
+     * Send all updates collected during the tick, one frame per topic
+     */
+    @Scheduled(fixedDelayString = "${location.broadcast.tick-ms:500}")
+    public void flushTick() {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        List<Object> masterFrame = new ArrayList<>();
+        Map<String, List<Object>> adminFrames = new HashMap<>();
+        for (String agentId : pendingUpdates.keySet()) {
+            AgentLocationResponse response = pendingUpdates.remove(agentId);
+            if (response == null) {
+                continue;
+            }
+            Object frame = toFrame(response);
+            masterFrame.add(frame);
+            String admin = adminOf(agentId);
+            if (admin != null) {
+                adminFrames.computeIfAbsent(admin, key -> new ArrayList<>()).add(frame);
+            }
+        }
+
+        try {
+            messagingTemplate.convertAndSend(MASTER_BATCH_TOPIC, masterFrame);
+            adminFrames.forEach((admin, frame) -> messagingTemplate.convertAndSend(adminBatchTopic(admin), frame));
+        } catch (Exception e) {
+            logger.error("Error broadcasting location batch: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Forget the delta baseline of an agent (e.g. agent deleted)
+     */
+    public void forget(String agentId) {
+        pendingUpdates.remove(agentId);
+        lastSentFrames.remove(agentId);
+        lastKeyframes.remove(agentId);
+    }
+
+    private Object toFrame(AgentLocationResponse response) {
+        if (!delta) {
+            return response;
+        }
+
+        String agentId = response.getAgentId();
+        Map<String, Object> current = objectMapper.convertValue(response, MAP_TYPE);
+        Map<String, Object> previous = lastSentFrames.put(agentId, current);
+
+        long now = System.currentTimeMillis();
+        Long lastKeyframe = lastKeyframes.get(agentId);
+        if (previous == null || lastKeyframe == null || now - lastKeyframe >= keyframeIntervalMillis) {
+            lastKeyframes.put(agentId, now);
+            return current;
+        }
+
+        // Only the fields that changed, always keyed by agent
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("agentId", agentId);
+        current.forEach((field, value) -> {
+            if (!Objects.equals(value, previous.get(field))) {
+                changes.put(field, value);
+            }
+        });
+        return changes;
+    }
+
+    private String adminOf(String agentId) {
+        return locationWriteBehindService.getAgentProfile(agentId)
+                .map(Agent::getCreatedBy)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,253 @@
+package com.votersystem.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.votersystem.entity.AgentLocation;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only location history track for agents.
+ * Every received position is buffered and written with multi-row INSERTs into
+ * agent_location_history, which is RANGE-partitioned per day. Retention drops
+ * whole day partitions instead of deleting rows. A catch-all pMAX partition
+ * keeps inserts working if the daily maintenance falls behind; upcoming days
+ * are split off it.
+ * The table is defined here only, since it is not mapped by an entity.
+ */
+@Service
+public class LocationHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationHistoryService.class);
+
+    private static final String TABLE_NAME = "agent_location_history";
+
+    private static final String PARTITION_PREFIX = "p";
+
+    private static final String MAX_PARTITION = "pMAX";
+
+    private static final String MAX_PARTITION_DEFINITION = "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE";
+
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO " + TABLE_NAME + " (agent_id, latitude, longitude, accuracy, altitude, speed, " +
+            "bearing, battery_level, recorded_at) VALUES ";
+
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ROUTE_SQL =
+            "SELECT agent_id, latitude, longitude, accuracy, altitude, speed, bearing, battery_level, recorded_at " +
+            "FROM " + TABLE_NAME + " WHERE agent_id = ? AND recorded_at >= ? AND recorded_at < ? " +
+            "ORDER BY recorded_at";
+
+    private static final RowMapper<AgentLocation> HISTORY_ROW_MAPPER = (rs, rowNum) -> {
+        AgentLocation location = new AgentLocation(rs.getString("agent_id"),
+                rs.getDouble("latitude"), rs.getDouble("longitude"), rs.getObject("accuracy", Double.class));
+        location.setAltitude(rs.getObject("altitude", Double.class));
+        location.setSpeed(rs.getObject("speed", Double.class));
+        location.setBearing(rs.getObject("bearing", Double.class));
+        location.setBatteryLevel(rs.getObject("battery_level", Integer.class));
+        location.setIsCurrent(false);
+        location.setConnectionStatus(null);
+        location.setTimestamp(rs.getTimestamp("recorded_at").toLocalDateTime());
+        return location;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${location.history.insert-batch-size:500}")
+    private int insertBatchSize;
+
+    @Value("${location.history.max-buffered:200000}")
+    private int maxBuffered;
+
+    @Value("${location.history.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${location.history.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    private final Queue<AgentLocation> buffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    /**
+     * Queue a position for the history track; never blocks the ingestion path
+     */
+    public void append(AgentLocation location) {
+        if (bufferedCount.incrementAndGet() > maxBuffered) {
+            // Database is not keeping up - shed history rather than memory
+            bufferedCount.decrementAndGet();
+            if (droppedCount.incrementAndGet() % 1000 == 1) {
+                logger.warn("Location history buffer full, {} positions dropped so far", droppedCount.get());
+            }
+            return;
+        }
+        buffer.add(location);
+    }
+
+    /**
+     * Route of an agent for one day, oldest first. The range predicate lets
+     * MySQL prune to a single partition and use (agent_id, recorded_at).
+     */
+    public List<AgentLocation> getAgentRoute(String agentId, LocalDate day) {
+        return jdbcTemplate.query(SELECT_ROUTE_SQL, HISTORY_ROW_MAPPER, agentId,
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Write buffered positions using multi-row INSERT statements
+     */
+    @Scheduled(fixedDelayString = "${location.history.flush-interval-ms:5000}")
+    public void flush() {
+        List<AgentLocation> chunk = new ArrayList<>(insertBatchSize);
+        AgentLocation location;
+        while ((location = buffer.poll()) != null) {
+            bufferedCount.decrementAndGet();
+            chunk.add(location);
+            if (chunk.size() == insertBatchSize) {
+                writeChunk(chunk);
+                chunk = new ArrayList<>(insertBatchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Create the table if needed and make sure upcoming day partitions exist
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            LocalDate today = LocalDate.now();
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "id BIGINT NOT NULL AUTO_INCREMENT, " +
+                    "agent_id VARCHAR(20) NOT NULL, " +
+                    "latitude DOUBLE NOT NULL, " +
+                    "longitude DOUBLE NOT NULL, " +
+                    "accuracy DOUBLE NULL, " +
+                    "altitude DOUBLE NULL, " +
+                    "speed DOUBLE NULL, " +
+                    "bearing DOUBLE NULL, " +
+                    "battery_level INT NULL, " +
+                    "recorded_at DATETIME(3) NOT NULL, " +
+                    "PRIMARY KEY (id, recorded_at), " +
+                    "INDEX idx_location_history_agent_time (agent_id, recorded_at)" +
+                    ") ENGINE=InnoDB " +
+                    "PARTITION BY RANGE (TO_DAYS(recorded_at)) (" +
+                    partitionDefinition(today) + ", " + MAX_PARTITION_DEFINITION + ")");
+            maintainPartitions();
+        } catch (Exception e) {
+            logger.error("Error initializing location history table: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Split partitions for the coming days off pMAX and drop partitions past retention.
+     * Runs shortly after midnight every day.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void maintainPartitions() {
+        try {
+            LocalDate today = LocalDate.now();
+            Set<String> existing = jdbcTemplate.queryForList(
+                    "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+                    String.class, TABLE_NAME).stream().collect(Collectors.toSet());
+
+            LocalDate newest = existing.stream()
+                    .filter(partition -> !MAX_PARTITION.equals(partition))
+                    .map(LocationHistoryService::partitionDay)
+                    .max(LocalDate::compareTo)
+                    .orElse(today.minusDays(1));
+
+            List<String> upcoming = new ArrayList<>();
+            for (LocalDate day = newest.plusDays(1); !day.isAfter(today.plusDays(partitionsAhead)); day = day.plusDays(1)) {
+                upcoming.add(partitionDefinition(day));
+            }
+            if (!upcoming.isEmpty()) {
+                // Rows that already landed in pMAX are moved into their day partitions
+                upcoming.add(MAX_PARTITION_DEFINITION);
+                jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION " + MAX_PARTITION +
+                        " INTO (" + String.join(", ", upcoming) + ")");
+                logger.info("Added {} location history partitions up to {}", upcoming.size() - 1,
+                        today.plusDays(partitionsAhead));
+            }
+
+            LocalDate cutoff = today.minusDays(retentionDays);
+            for (String partition : existing) {
+                if (!MAX_PARTITION.equals(partition) && partitionDay(partition).isBefore(cutoff)) {
+                    jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DROP PARTITION " + partition);
+                    logger.info("Dropped location history partition {}", partition);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error maintaining location history partitions: {}", e.getMessage());
+        }
+    }
+
+    private void writeChunk(List<AgentLocation> chunk) {
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW));
+        try {
+            jdbcTemplate.update(sql, (PreparedStatement ps) -> {
+                int index = 1;
+                for (AgentLocation location : chunk) {
+                    ps.setString(index++, location.getAgentId());
+                    ps.setObject(index++, location.getLatitude());
+                    ps.setObject(index++, location.getLongitude());
+                    ps.setObject(index++, location.getAccuracy());
+                    ps.setObject(index++, location.getAltitude());
+                    ps.setObject(index++, location.getSpeed());
+                    ps.setObject(index++, location.getBearing());
+                    ps.setObject(index++, location.getBatteryLevel());
+                    ps.setTimestamp(index++, Timestamp.valueOf(location.getTimestamp()));
+                }
+            });
+        } catch (Exception e) {
+            // History is best-effort; the current position is persisted separately
+            logger.error("Error writing {} location history rows: {}", chunk.size(), e.getMessage());
+        }
+    }
+
+    private static String partitionDefinition(LocalDate day) {
+        return "PARTITION " + PARTITION_PREFIX + day.format(PARTITION_FORMAT) +
+                " VALUES LESS THAN (TO_DAYS('" + day.plusDays(1) + "'))";
+    }
+
+    private static LocalDate partitionDay(String partitionName) {
+        return LocalDate.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_FORMAT);
+    }
+}
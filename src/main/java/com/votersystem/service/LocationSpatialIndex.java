@@ -0,0 +1,210 @@
+package com.votersystem.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.votersystem.entity.AgentLocation;
+import com.votersystem.repository.AgentLocationRepository;
+
+/**
+ * Uniform-grid index of current agent positions.
+ * Positions are bucketed into fixed-size latitude/longitude cells, so radius and
+ * bounding-box queries only visit the cells overlapping the search area instead
+ * of evaluating the Haversine formula for every agent in the database.
+ */
+@Service
+public class LocationSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationSpatialIndex.class);
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    @Autowired
+    private AgentLocationRepository agentLocationRepository;
+
+    @Value("${location.spatial-index.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    // Agents in each grid cell
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    // Current indexed position of each agent
+    private final Map<String, IndexedPosition> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Populate the index from the persisted current locations
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            List<AgentLocation> locations = agentLocationRepository.findAllCurrentLocations();
+            for (AgentLocation location : locations) {
+                update(location.getAgentId(), location.getLatitude(), location.getLongitude());
+            }
+            logger.info("Spatial index initialized with {} agent positions", locations.size());
+        } catch (Exception e) {
+            logger.error("Error initializing spatial index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move an agent to a new position, re-bucketing it only when the cell changes
+     */
+    public void update(String agentId, double latitude, double longitude) {
+        long newCell = cellKey(latitude, longitude);
+        positions.compute(agentId, (id, previous) -> {
+            if (previous == null || previous.cell != newCell) {
+                if (previous != null) {
+                    removeFromCell(previous.cell, id);
+                }
+                cells.compute(newCell, (key, agents) -> {
+                    Set<String> cellAgents = agents != null ? agents : ConcurrentHashMap.<String>newKeySet();
+                    cellAgents.add(id);
+                    return cellAgents;
+                });
+            }
+            return new IndexedPosition(latitude, longitude, newCell);
+        });
+    }
+
+    /**
+     * Remove an agent from the index
+     */
+    public void remove(String agentId) {
+        positions.computeIfPresent(agentId, (id, previous) -> {
+            removeFromCell(previous.cell, id);
+            return null;
+        });
+    }
+
+    /**
+     * Agent IDs within radiusKm of the given point, nearest first
+     */
+    public List<String> findWithinRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double lonDelta = Math.min(radiusKm / (KM_PER_DEGREE_LATITUDE * cosLat), 180.0);
+
+        List<Map.Entry<String, Double>> matches = new ArrayList<>();
+        forEachCandidate(latitude - latDelta, latitude + latDelta, longitude - lonDelta, longitude + lonDelta,
+                (agentId, position) -> {
+                    double distance = haversineKm(latitude, longitude, position.latitude, position.longitude);
+                    if (distance <= radiusKm) {
+                        matches.add(Map.entry(agentId, distance));
+                    }
+                });
+
+        matches.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+        List<String> agentIds = new ArrayList<>(matches.size());
+        for (Map.Entry<String, Double> match : matches) {
+            agentIds.add(match.getKey());
+        }
+        return agentIds;
+    }
+
+    /**
+     * Agent IDs inside the given bounding box
+     */
+    public List<String> findWithinBounds(double minLatitude, double maxLatitude,
+                                         double minLongitude, double maxLongitude) {
+        List<String> agentIds = new ArrayList<>();
+        forEachCandidate(minLatitude, maxLatitude, minLongitude, maxLongitude, (agentId, position) -> {
+            if (position.latitude >= minLatitude && position.latitude <= maxLatitude
+                    && position.longitude >= minLongitude && position.longitude <= maxLongitude) {
+                agentIds.add(agentId);
+            }
+        });
+        return agentIds;
+    }
+
+    /**
+     * Number of indexed agents
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    private void forEachCandidate(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                                  BiConsumer<String, IndexedPosition> consumer) {
+        long minRow = cellIndex(Math.max(minLatitude, -90.0));
+        long maxRow = cellIndex(Math.min(maxLatitude, 90.0));
+        long minCol = cellIndex(Math.max(minLongitude, -180.0));
+        long maxCol = cellIndex(Math.min(maxLongitude, 180.0));
+
+        // Very large areas touch more cells than there are agents - scan the agents instead
+        if ((maxRow - minRow + 1) * (maxCol - minCol + 1) > positions.size()) {
+            positions.forEach(consumer);
+            return;
+        }
+
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                Set<String> cellAgents = cells.get(combine(row, col));
+                if (cellAgents == null) {
+                    continue;
+                }
+                for (String agentId : cellAgents) {
+                    IndexedPosition position = positions.get(agentId);
+                    if (position != null) {
+                        consumer.accept(agentId, position);
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, String agentId) {
+        cells.computeIfPresent(cell, (key, agents) -> {
+            agents.remove(agentId);
+            return agents.isEmpty() ? null : agents;
+        });
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return combine(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long combine(long row, long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static final class IndexedPosition {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private IndexedPosition(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+}
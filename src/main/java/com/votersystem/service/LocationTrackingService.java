@@ -1,14 +1,21 @@
 package com.votersystem.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.votersystem.dto.AgentLocationResponse;
 import com.votersystem.dto.LocationUpdateRequest;
@@ -32,64 +39,58 @@ public class LocationTrackingService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LocationWriteBehindService locationWriteBehindService;
+
+    @Autowired
+    private LocationHistoryService locationHistoryService;
+
+    @Autowired
+    private LocationSpatialIndex locationSpatialIndex;
+
+    @Autowired
+    private AgentPresenceTracker agentPresenceTracker;
+
+    @Autowired
+    private LocationBroadcastService locationBroadcastService;
+
     /**
-     * Update agent location from mobile app (PUT approach - update existing record)
+     * Update agent location from mobile app.
+     * The position is applied to the in-memory table and persisted by the
+     * write-behind flusher, so no database round-trip happens per frame.
      */
-    @Transactional
     public AgentLocationResponse updateAgentLocation(String agentId, LocationUpdateRequest request) {
         try {
-            // Validate agent exists
-            Optional<Agent> agentOpt = agentRepository.findById(agentId);
+            // Validate agent exists (cached after the first frame)
+            Optional<Agent> agentOpt = locationWriteBehindService.getAgentProfile(agentId);
             if (agentOpt.isEmpty()) {
                 System.err.println("Agent not found: " + agentId);
                 return null;
             }
 
-            Agent agent = agentOpt.get();
-
-            // TRUE UPDATE approach - update existing record or create if not exists
-            Optional<AgentLocation> existingLocationOpt = agentLocationRepository.findCurrentLocationByAgentId(agentId);
-            AgentLocation location;
-
-            if (existingLocationOpt.isPresent()) {
-                // UPDATE existing record (same ID, just update fields)
-                location = existingLocationOpt.get();
-                System.out.println("✅ UPDATING existing location for agent: " + agentId + " (keeping ID: " + location.getId() + ")");
-            } else {
-                // CREATE new record (first time only)
-                location = new AgentLocation();
-                location.setAgentId(agentId);
-                location.setIsCurrent(true);
-                System.out.println("🆕 CREATING first location record for agent: " + agentId);
-            }
-
-            // Update location data
-            location.setLatitude(request.getLatitude());
-            location.setLongitude(request.getLongitude());
-            location.setAccuracy(request.getAccuracy());
+            AgentLocation location = new AgentLocation(agentId, request.getLatitude(),
+                    request.getLongitude(), request.getAccuracy());
             location.setAltitude(request.getAltitude());
             location.setSpeed(request.getSpeed());
             location.setBearing(request.getBearing());
             location.setAddress(request.getLocation());
             location.setBatteryLevel(request.getBatteryLevel());
             location.setIsCharging(request.getIsCharging());
+            location.setIsCurrent(true);
             location.setConnectionStatus(AgentLocation.ConnectionStatus.ONLINE);
-            location.setTimestamp(LocalDateTime.now()); // Update timestamp
+            location.setTimestamp(LocalDateTime.now());
 
-            // Save location (UPDATE or INSERT)
-            AgentLocation savedLocation = agentLocationRepository.save(location);
+            locationWriteBehindService.record(location);
+            locationHistoryService.append(location);
+            locationSpatialIndex.update(agentId, request.getLatitude(), request.getLongitude());
+            agentPresenceTracker.touch(agentId);
 
-            // Update agent's last location fields
-            agent.setLatitude(request.getLatitude());
-            agent.setLongitude(request.getLongitude());
-            agent.setLastLocation(request.getLocation());
-            agentRepository.save(agent);
-
-            // Create response
-            AgentLocationResponse response = AgentLocationResponse.from(savedLocation, agent);
-
-            System.out.println("Location updated for agent: " + agentId + 
-                             " at " + request.getLatitude() + ", " + request.getLongitude());
+            // Create response from memory; agent's last location is the address just received
+            AgentLocationResponse response = AgentLocationResponse.from(location, agentOpt.get());
+            response.setLastLocation(request.getLocation());
 
             return response;
 
@@ -122,11 +123,18 @@ public class LocationTrackingService {
                     return false;
             }
 
+            if (connectionStatus == AgentLocation.ConnectionStatus.ONLINE) {
+                agentPresenceTracker.touch(agentId);
+            } else {
+                agentPresenceTracker.forget(agentId);
+            }
+            locationWriteBehindService.applyConnectionStatus(agentId, connectionStatus);
             int updated = agentLocationRepository.updateConnectionStatus(agentId, connectionStatus, LocalDateTime.now());
             System.out.println("Updated connection status for agent " + agentId + " to " + status +
                              " (affected rows: " + updated + ") with timestamp: " + LocalDateTime.now());
             
-            return updated > 0;
+            // A first position may still be waiting in the write-behind buffer
+            return updated > 0 || locationWriteBehindService.getLatest(agentId).isPresent();
 
         } catch (Exception e) {
             System.err.println("Error updating connection status: " + e.getMessage());
@@ -136,17 +144,13 @@ public class LocationTrackingService {
     }
 
     /**
-     * Update last seen timestamp for agent
+     * Update last seen timestamp for agent.
+     * Kept in memory only; the timestamp is persisted by the write-behind flusher.
      */
-    @Transactional
     public void updateLastSeen(String agentId) {
         try {
-            Optional<AgentLocation> currentLocation = agentLocationRepository.findCurrentLocationByAgentId(agentId);
-            if (currentLocation.isPresent()) {
-                AgentLocation location = currentLocation.get();
-                location.setTimestamp(LocalDateTime.now());
-                agentLocationRepository.save(location);
-            }
+            agentPresenceTracker.touch(agentId);
+            locationWriteBehindService.recordHeartbeat(agentId);
         } catch (Exception e) {
             System.err.println("Error updating last seen for agent " + agentId + ": " + e.getMessage());
         }
@@ -157,6 +161,18 @@ public class LocationTrackingService {
      */
     public AgentLocationResponse getAgentCurrentLocation(String agentId) {
         try {
+            // Serve from the in-memory table first; it may be ahead of the database
+            Optional<AgentLocation> latest = locationWriteBehindService.getLatest(agentId);
+            if (latest.isPresent()) {
+                Optional<Agent> agentOpt = locationWriteBehindService.getAgentProfile(agentId);
+                if (agentOpt.isEmpty()) {
+                    return null;
+                }
+                AgentLocationResponse response = AgentLocationResponse.from(latest.get(), agentOpt.get());
+                response.setLastLocation(latest.get().getAddress());
+                return response;
+            }
+
             Optional<AgentLocation> locationOpt = agentLocationRepository.findCurrentLocationByAgentId(agentId);
             if (locationOpt.isEmpty()) {
                 return null;
@@ -175,19 +191,80 @@ public class LocationTrackingService {
         }
     }
 
+    /**
+     * Get the recorded route of an agent for a given day
+     */
+    public List<AgentLocation> getAgentRoute(String agentId, LocalDate day) {
+        try {
+            return locationHistoryService.getAgentRoute(agentId, day);
+        } catch (Exception e) {
+            System.err.println("Error getting agent route: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Find agents within a radius of a point using the in-memory spatial index.
+     * allowedAgentIds restricts the result for sub-admins; null means no restriction.
+     */
+    public List<AgentLocationResponse> findAgentsNearby(double latitude, double longitude, double radiusKm,
+                                                        Set<String> allowedAgentIds) {
+        return toLocationResponses(locationSpatialIndex.findWithinRadius(latitude, longitude, radiusKm),
+                allowedAgentIds);
+    }
+
+    /**
+     * Find agents inside a bounding box using the in-memory spatial index
+     */
+    public List<AgentLocationResponse> findAgentsWithinBounds(double minLatitude, double maxLatitude,
+                                                              double minLongitude, double maxLongitude,
+                                                              Set<String> allowedAgentIds) {
+        return toLocationResponses(
+                locationSpatialIndex.findWithinBounds(minLatitude, maxLatitude, minLongitude, maxLongitude),
+                allowedAgentIds);
+    }
+
+    /**
+     * Build responses for the given agents, preferring in-memory positions and
+     * loading the remainder in a single query. Preserves the order of agentIds.
+     */
+    private List<AgentLocationResponse> toLocationResponses(List<String> agentIds, Set<String> allowedAgentIds) {
+        List<String> visibleIds = agentIds.stream()
+                .filter(id -> allowedAgentIds == null || allowedAgentIds.contains(id))
+                .collect(Collectors.toList());
+
+        Map<String, AgentLocationResponse> responses = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String agentId : visibleIds) {
+            Optional<AgentLocation> latest = locationWriteBehindService.getLatest(agentId);
+            Optional<Agent> agent = latest.isPresent()
+                    ? locationWriteBehindService.getAgentProfile(agentId) : Optional.empty();
+            if (latest.isPresent() && agent.isPresent()) {
+                AgentLocationResponse response = AgentLocationResponse.from(latest.get(), agent.get());
+                response.setLastLocation(latest.get().getAddress());
+                responses.put(agentId, response);
+            } else {
+                missingIds.add(agentId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            agentLocationRepository.findCurrentLocationResponsesByAgentIds(missingIds)
+                    .forEach(response -> responses.put(response.getAgentId(), response));
+        }
+
+        return visibleIds.stream()
+                .map(responses::get)
+                .filter(response -> response != null)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get all current locations (for master admin)
      */
     public List<AgentLocationResponse> getAllCurrentLocations() {
         try {
-            List<AgentLocation> locations = agentLocationRepository.findAllCurrentLocations();
-            return locations.stream()
-                    .map(location -> {
-                        Optional<Agent> agent = agentRepository.findById(location.getAgentId());
-                        return agent.map(a -> AgentLocationResponse.from(location, a)).orElse(null);
-                    })
-                    .filter(response -> response != null)
-                    .collect(Collectors.toList());
+            // Location and agent fields are fetched together to avoid a lookup per row
+            return agentLocationRepository.findAllCurrentLocationResponses();
 
         } catch (Exception e) {
             System.err.println("Error getting all current locations: " + e.getMessage());
@@ -200,14 +277,8 @@ public class LocationTrackingService {
      */
     public List<AgentLocationResponse> getCurrentLocationsByAgentIds(List<String> agentIds) {
         try {
-            List<AgentLocation> locations = agentLocationRepository.findCurrentLocationsByAgentIds(agentIds);
-            return locations.stream()
-                    .map(location -> {
-                        Optional<Agent> agent = agentRepository.findById(location.getAgentId());
-                        return agent.map(a -> AgentLocationResponse.from(location, a)).orElse(null);
-                    })
-                    .filter(response -> response != null)
-                    .collect(Collectors.toList());
+            // Location and agent fields are fetched together to avoid a lookup per row
+            return agentLocationRepository.findCurrentLocationResponsesByAgentIds(agentIds);
 
         } catch (Exception e) {
             System.err.println("Error getting current locations by agent IDs: " + e.getMessage());
@@ -220,14 +291,8 @@ public class LocationTrackingService {
      */
     public List<AgentLocationResponse> getOnlineAgents() {
         try {
-            List<AgentLocation> locations = agentLocationRepository.findAllOnlineAgents();
-            return locations.stream()
-                    .map(location -> {
-                        Optional<Agent> agent = agentRepository.findById(location.getAgentId());
-                        return agent.map(a -> AgentLocationResponse.from(location, a)).orElse(null);
-                    })
-                    .filter(response -> response != null)
-                    .collect(Collectors.toList());
+            // Location and agent fields are fetched together to avoid a lookup per row
+            return agentLocationRepository.findAllOnlineLocationResponses();
 
         } catch (Exception e) {
             System.err.println("Error getting online agents: " + e.getMessage());
@@ -240,14 +305,8 @@ public class LocationTrackingService {
      */
     public List<AgentLocationResponse> getOnlineAgentsByIds(List<String> agentIds) {
         try {
-            List<AgentLocation> locations = agentLocationRepository.findOnlineAgentsByIds(agentIds);
-            return locations.stream()
-                    .map(location -> {
-                        Optional<Agent> agent = agentRepository.findById(location.getAgentId());
-                        return agent.map(a -> AgentLocationResponse.from(location, a)).orElse(null);
-                    })
-                    .filter(response -> response != null)
-                    .collect(Collectors.toList());
+            // Location and agent fields are fetched together to avoid a lookup per row
+            return agentLocationRepository.findOnlineLocationResponsesByAgentIds(agentIds);
 
         } catch (Exception e) {
             System.err.println("Error getting online agents by IDs: " + e.getMessage());
@@ -275,6 +334,53 @@ public class LocationTrackingService {
         }
     }
 
+    /**
+     * Mark agents whose presence deadline expired as OFFLINE in one statement
+     * and push each transition to /topic/location/status once it commits
+     */
+    @Transactional
+    public int markAgentsOffline(List<String> agentIds) {
+        if (agentIds.isEmpty()) {
+            return 0;
+        }
+
+        for (String agentId : agentIds) {
+            locationWriteBehindService.applyConnectionStatus(agentId, AgentLocation.ConnectionStatus.OFFLINE);
+        }
+        int updated = agentLocationRepository.markAgentsOffline(agentIds, LocalDateTime.now());
+
+        eventPublisher.publishEvent(new AgentsOfflineEvent(toLocationResponses(agentIds, null)));
+        return updated;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentsOffline(AgentsOfflineEvent event) {
+        for (AgentLocationResponse response : event.getLocations()) {
+            try {
+                messagingTemplate.convertAndSend("/topic/location/status", response);
+            } catch (Exception e) {
+                System.err.println("Error broadcasting offline status of agent " + response.getAgentId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drop the cached agent profile used for location responses (agent details changed)
+     */
+    public void evictAgentProfile(String agentId) {
+        locationWriteBehindService.evictAgent(agentId);
+    }
+
+    /**
+     * Drop all in-memory tracking state for an agent (agent deleted)
+     */
+    public void clearAgentState(String agentId) {
+        locationWriteBehindService.removeAgent(agentId);
+        locationSpatialIndex.remove(agentId);
+        agentPresenceTracker.forget(agentId);
+        locationBroadcastService.forget(agentId);
+    }
+
     /**
      * Count online agents
      */
@@ -343,6 +449,7 @@ public class LocationTrackingService {
                 location.setTimestamp(LocalDateTime.now());
 
                 agentLocationRepository.save(location);
+                locationSpatialIndex.update(agent.getId(), coords[0], coords[1]);
 
                 // Update agent's last known location
                 agent.setLatitude(coords[0]);
@@ -0,0 +1,372 @@
+package com.votersystem.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.votersystem.entity.Agent;
+import com.votersystem.entity.AgentLocation;
+import com.votersystem.repository.AgentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory latest-position table for agents with write-behind persistence.
+ * Location frames are applied to memory immediately and coalesced per agent;
+ * a background flusher writes only the newest position of each agent to
+ * agent_locations/agents in JDBC batches. Heartbeats are handled the same way,
+ * so a ping never costs a database round-trip.
+ */
+@Service
+public class LocationWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationWriteBehindService.class);
+
+    private static final String UPDATE_CURRENT_LOCATION_SQL =
+            "UPDATE agent_locations SET latitude = ?, longitude = ?, accuracy = ?, altitude = ?, speed = ?, " +
+            "bearing = ?, address = ?, battery_level = ?, is_charging = ?, connection_status = ?, timestamp = ? " +
+            "WHERE agent_id = ? AND is_current = true";
+
+    private static final String INSERT_CURRENT_LOCATION_SQL =
+            "INSERT INTO agent_locations (latitude, longitude, accuracy, altitude, speed, bearing, address, " +
+            "battery_level, is_charging, connection_status, timestamp, agent_id, is_current) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true)";
+
+    private static final String UPDATE_AGENT_LOCATION_SQL =
+            "UPDATE agents SET latitude = ?, longitude = ?, last_location = ?, last_updated = ? WHERE id = ?";
+
+    // Never move the timestamp backwards (a location flush may already have written a newer one)
+    private static final String UPDATE_LAST_SEEN_SQL =
+            "UPDATE agent_locations SET timestamp = ? WHERE agent_id = ? AND is_current = true AND timestamp < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AgentRepository agentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${location.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${location.profile-cache.ttl-ms:300000}")
+    private long profileTtlMillis;
+
+    @Value("${location.profile-cache.max-size:20000}")
+    private int profileCacheMaxSize;
+
+    private Counter heartbeatCounter;
+
+    private Timer flushTimer;
+
+    // Latest known position per agent (snapshots are never mutated once published)
+    private final Map<String, AgentLocation> latestLocations = new ConcurrentHashMap<>();
+
+    // Agents whose latest position has not been written to the database yet
+    private final Set<String> dirtyAgents = ConcurrentHashMap.newKeySet();
+
+    // Agent profile fields needed to build responses without a lookup per frame; entries expire
+    // after location.profile-cache.ttl-ms (changes made on other nodes) and least recently used
+    // profiles are dropped beyond location.profile-cache.max-size
+    private Map<String, CachedProfile> agentProfiles;
+
+    // Heartbeats (epoch millis) not yet persisted, coalesced per agent
+    private final Map<String, Long> pendingHeartbeats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        agentProfiles = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest) {
+                return size() > profileCacheMaxSize;
+            }
+        });
+        heartbeatCounter = Counter.builder("location.heartbeats")
+                .description("Heartbeats received from agents")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("location.write-behind.flush")
+                .description("Time taken to flush buffered locations and heartbeats")
+                .register(meterRegistry);
+        Gauge.builder("location.write-behind.pending", dirtyAgents, Set::size)
+                .description("Agents with an unflushed position")
+                .register(meterRegistry);
+        Gauge.builder("location.profile-cache.size", agentProfiles, Map::size)
+                .description("Cached agent profiles")
+                .register(meterRegistry);
+        Gauge.builder("location.heartbeats.pending", pendingHeartbeats, Map::size)
+                .description("Agents with an unpersisted heartbeat")
+                .register(meterRegistry);
+        Gauge.builder("location.heartbeats.persistence.lag", this, LocationWriteBehindService::heartbeatLagSeconds)
+                .description("Age in seconds of the oldest unpersisted heartbeat")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish a new position for an agent; it will be persisted on the next flush
+     */
+    public void record(AgentLocation snapshot) {
+        latestLocations.put(snapshot.getAgentId(), snapshot);
+        dirtyAgents.add(snapshot.getAgentId());
+    }
+
+    /**
+     * Record a heartbeat; the last-seen timestamp is persisted on the next flush
+     */
+    public void recordHeartbeat(String agentId) {
+        pendingHeartbeats.merge(agentId, System.currentTimeMillis(), Math::max);
+        heartbeatCounter.increment();
+    }
+
+    /**
+     * Latest in-memory position for an agent, if one was received since startup
+     */
+    public Optional<AgentLocation> getLatest(String agentId) {
+        return Optional.ofNullable(latestLocations.get(agentId));
+    }
+
+    /**
+     * Reflect a connection status change in the in-memory snapshot so that a
+     * pending flush does not write a stale status back to the database
+     */
+    public void applyConnectionStatus(String agentId, AgentLocation.ConnectionStatus status) {
+        latestLocations.computeIfPresent(agentId, (id, current) -> {
+            AgentLocation updated = copyOf(current);
+            updated.setConnectionStatus(status);
+            return updated;
+        });
+    }
+
+    /**
+     * Resolve the agent profile, loading it from the database only when not cached or expired
+     */
+    public Optional<Agent> getAgentProfile(String agentId) {
+        long now = System.currentTimeMillis();
+        CachedProfile cached = agentProfiles.get(agentId);
+        if (cached != null && now - cached.loadedAt < profileTtlMillis) {
+            return Optional.of(cached.agent);
+        }
+        Optional<Agent> agentOpt = agentRepository.findById(agentId);
+        if (agentOpt.isPresent()) {
+            agentProfiles.put(agentId, new CachedProfile(agentOpt.get(), now));
+        } else {
+            agentProfiles.remove(agentId);
+        }
+        return agentOpt;
+    }
+
+    /**
+     * Drop the cached profile for an agent (agent details or status updated)
+     */
+    public void evictAgent(String agentId) {
+        agentProfiles.remove(agentId);
+    }
+
+    /**
+     * Drop all in-memory state for an agent (agent deleted)
+     */
+    public void removeAgent(String agentId) {
+        dirtyAgents.remove(agentId);
+        pendingHeartbeats.remove(agentId);
+        latestLocations.remove(agentId);
+        agentProfiles.remove(agentId);
+    }
+
+    /**
+     * Number of agents waiting to be flushed
+     */
+    public int getPendingCount() {
+        return dirtyAgents.size();
+    }
+
+    /**
+     * Flush coalesced positions and heartbeats to the database in JDBC batches.
+     * Each kind is written in its own transaction and re-queued if that
+     * transaction does not commit, so a failing heartbeat batch cannot roll back
+     * (and lose) positions that were already taken off the dirty set.
+     */
+    @Scheduled(fixedDelayString = "${location.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        if (dirtyAgents.isEmpty() && pendingHeartbeats.isEmpty()) {
+            return;
+        }
+        flushTimer.record(() -> {
+            flushLocations();
+            flushHeartbeats();
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing agent locations on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void flushLocations() {
+        List<AgentLocation> pending = new ArrayList<>();
+        for (String agentId : dirtyAgents) {
+            // Remove before reading so an update arriving mid-flush marks the agent dirty again
+            if (dirtyAgents.remove(agentId)) {
+                AgentLocation snapshot = latestLocations.get(agentId);
+                if (snapshot != null) {
+                    pending.add(snapshot);
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < pending.size(); from += batchSize) {
+                    writeBatch(pending.subList(from, Math.min(from + batchSize, pending.size())));
+                }
+            });
+            logger.debug("Flushed {} agent locations", pending.size());
+        } catch (Exception e) {
+            // Not committed: re-queue so the positions are retried on the next flush
+            pending.forEach(location -> dirtyAgents.add(location.getAgentId()));
+            logger.error("Error flushing agent locations: {}", e.getMessage());
+        }
+    }
+
+    private void flushHeartbeats() {
+        List<Map.Entry<String, Long>> pending = new ArrayList<>();
+        for (String agentId : pendingHeartbeats.keySet()) {
+            Long seenAt = pendingHeartbeats.remove(agentId);
+            if (seenAt != null) {
+                pending.add(Map.entry(agentId, seenAt));
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPDATE_LAST_SEEN_SQL, pending, batchSize, (ps, heartbeat) -> {
+                    Timestamp seenAt = new Timestamp(heartbeat.getValue());
+                    ps.setTimestamp(1, seenAt);
+                    ps.setString(2, heartbeat.getKey());
+                    ps.setTimestamp(3, seenAt);
+                }));
+            logger.debug("Flushed {} agent heartbeats", pending.size());
+        } catch (Exception e) {
+            // Not committed: re-queue unless a newer heartbeat already arrived
+            pending.forEach(heartbeat -> pendingHeartbeats.merge(heartbeat.getKey(), heartbeat.getValue(), Math::max));
+            logger.error("Error flushing agent heartbeats: {}", e.getMessage());
+        }
+    }
+
+    private double heartbeatLagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (Long seenAt : pendingHeartbeats.values()) {
+            oldest = Math.min(oldest, seenAt);
+        }
+        return oldest == Long.MAX_VALUE ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+
+    private void writeBatch(List<AgentLocation> batch) {
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_CURRENT_LOCATION_SQL, batch, batch.size(),
+                (ps, location) -> {
+                    setLocationParameters(ps, location);
+                    ps.setString(12, location.getAgentId());
+                })[0];
+
+        // First position for an agent - no current row exists yet
+        List<AgentLocation> inserts = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                inserts.add(batch.get(i));
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CURRENT_LOCATION_SQL, inserts, inserts.size(),
+                    (ps, location) -> {
+                        setLocationParameters(ps, location);
+                        ps.setString(12, location.getAgentId());
+                    });
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_AGENT_LOCATION_SQL, batch, batch.size(),
+                (ps, location) -> {
+                    ps.setObject(1, location.getLatitude());
+                    ps.setObject(2, location.getLongitude());
+                    ps.setString(3, location.getAddress());
+                    ps.setTimestamp(4, Timestamp.valueOf(location.getTimestamp()));
+                    ps.setString(5, location.getAgentId());
+                });
+    }
+
+    private static void setLocationParameters(PreparedStatement ps, AgentLocation location) throws SQLException {
+        ps.setObject(1, location.getLatitude());
+        ps.setObject(2, location.getLongitude());
+        ps.setObject(3, location.getAccuracy());
+        ps.setObject(4, location.getAltitude());
+        ps.setObject(5, location.getSpeed());
+        ps.setObject(6, location.getBearing());
+        ps.setString(7, location.getAddress());
+        ps.setObject(8, location.getBatteryLevel());
+        ps.setObject(9, location.getIsCharging());
+        ps.setString(10, location.getConnectionStatus().name());
+        ps.setTimestamp(11, Timestamp.valueOf(location.getTimestamp()));
+    }
+
+    private static AgentLocation copyOf(AgentLocation source) {
+        AgentLocation copy = new AgentLocation(source.getAgentId(), source.getLatitude(),
+                source.getLongitude(), source.getAccuracy());
+        copy.setAltitude(source.getAltitude());
+        copy.setSpeed(source.getSpeed());
+        copy.setBearing(source.getBearing());
+        copy.setAddress(source.getAddress());
+        copy.setBatteryLevel(source.getBatteryLevel());
+        copy.setIsCharging(source.getIsCharging());
+        copy.setIsCurrent(true);
+        copy.setConnectionStatus(source.getConnectionStatus());
+        copy.setTimestamp(source.getTimestamp());
+        return copy;
+    }
+
+    private static final class CachedProfile {
+        private final Agent agent;
+        private final long loadedAt;
+
+        private CachedProfile(Agent agent, long loadedAt) {
+            this.agent = agent;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
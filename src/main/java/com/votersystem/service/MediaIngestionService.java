@@ -0,0 +1,534 @@
+package com.votersystem.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.votersystem.entity.Issue;
+import com.votersystem.entity.IssueAttachment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Asynchronous media ingestion.
+ * Uploaded files are streamed to a local staging directory and saved as PENDING
+ * attachments together with a row in media_ingestion_jobs, so the request
+ * returns as soon as the file is on disk. Workers on mediaIngestionExecutor
+ * push staged files to the MediaStorage backend and mark the attachment READY;
+ * failures are retried with exponential backoff until media.ingestion.max-attempts,
+ * after which the attachment is marked FAILED.
+ * Jobs are claimed with a lease in the database and recorded with the node that
+ * staged the file (media.ingestion.node-id, which must stay the same across
+ * restarts), so pending and interrupted jobs are picked up again by the poller
+ * after a restart. With media.staging.shared=true the staging directory is on
+ * storage every node can read and any node takes any job. Attachments still
+ * PENDING after media.ingestion.stale-after-hours (e.g. their node never came
+ * back) are swept to FAILED.
+ */
+@Service
+public class MediaIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaIngestionService.class);
+
+    private static final String TABLE_NAME = "media_ingestion_jobs";
+
+    private static final String INSERT_JOB_SQL =
+            "INSERT INTO " + TABLE_NAME + " (attachment_id, node_id, staged_path, folder, resource_type, " +
+            "status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, 'PENDING', 0, NOW(), NOW())";
+
+    private static final String DUE_CONDITION =
+            "((status = 'PENDING' AND next_attempt_at <= NOW()) " +
+            " OR (status = 'IN_PROGRESS' AND locked_until < NOW()))";
+
+    private static final String DUE_JOBS_SQL =
+            "SELECT id FROM " + TABLE_NAME + " WHERE node_id = ? AND " + DUE_CONDITION + " ORDER BY id LIMIT ?";
+
+    private static final String DUE_SHARED_JOBS_SQL =
+            "SELECT id FROM " + TABLE_NAME + " WHERE " + DUE_CONDITION + " ORDER BY id LIMIT ?";
+
+    // Jobs of stale attachments that no worker holds a live lease on
+    private static final String STALE_JOBS_SQL =
+            "SELECT j.id, j.attachment_id, j.node_id, j.staged_path FROM " + TABLE_NAME + " j " +
+            "JOIN issue_attachments a ON a.id = j.attachment_id " +
+            "WHERE a.upload_status = 'PENDING' AND a.uploaded_at < ? AND j.status <> 'FAILED' " +
+            "AND (j.status = 'PENDING' OR j.locked_until < NOW()) ORDER BY j.id LIMIT ?";
+
+    // Stale attachments left without any job
+    private static final String FAIL_ORPHANED_ATTACHMENTS_SQL =
+            "UPDATE issue_attachments a SET a.upload_status = 'FAILED' " +
+            "WHERE a.upload_status = 'PENDING' AND a.uploaded_at < ? AND NOT EXISTS (" +
+            "SELECT 1 FROM " + TABLE_NAME + " j WHERE j.attachment_id = a.id AND j.status <> 'FAILED')";
+
+    // Only one worker wins the conditional update; the lease lets another take over after a crash
+    private static final String CLAIM_JOB_SQL =
+            "UPDATE " + TABLE_NAME + " SET status = 'IN_PROGRESS', attempts = attempts + 1, " +
+            "locked_until = NOW() + INTERVAL ? SECOND WHERE id = ? AND " + DUE_CONDITION;
+
+    private static final String SELECT_JOB_SQL =
+            "SELECT attachment_id, staged_path, folder, resource_type, attempts, upload_offset FROM " + TABLE_NAME +
+            " WHERE id = ?";
+
+    private static final String SAVE_OFFSET_SQL = "UPDATE " + TABLE_NAME + " SET upload_offset = ? WHERE id = ?";
+
+    private static final String RETRY_JOB_SQL =
+            "UPDATE " + TABLE_NAME + " SET status = 'PENDING', locked_until = NULL, " +
+            "next_attempt_at = NOW() + INTERVAL ? SECOND, last_error = ? WHERE id = ?";
+
+    private static final String FAIL_JOB_SQL =
+            "UPDATE " + TABLE_NAME + " SET status = 'FAILED', locked_until = NULL, last_error = ? WHERE id = ?";
+
+    private static final String DELETE_JOB_SQL = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
+
+    private static final String ATTACHMENT_PENDING_SQL =
+            "SELECT COUNT(*) FROM issue_attachments WHERE id = ? AND upload_status = 'PENDING'";
+
+    private static final String MARK_READY_SQL =
+            "UPDATE issue_attachments SET file_url = ?, cloudinary_public_id = ?, upload_status = 'READY' " +
+            "WHERE id = ? AND upload_status = 'PENDING'";
+
+    private static final String MARK_FAILED_SQL =
+            "UPDATE issue_attachments SET upload_status = 'FAILED' WHERE id = ? AND upload_status = 'PENDING'";
+
+    // Maximum file sizes (in bytes), as enforced for direct uploads
+    private static final long MAX_IMAGE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final long MAX_VIDEO_SIZE = 100 * 1024 * 1024; // 100MB
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IssueAttachmentService attachmentService;
+
+    @Autowired
+    private MediaStorage mediaStorage;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("mediaIngestionExecutor")
+    private Executor mediaIngestionExecutor;
+
+    @Value("${media.staging.dir:./uploads/staging}")
+    private String stagingDir;
+
+    @Value("${media.ingestion.node-id:}")
+    private String nodeId;
+
+    @Value("${media.staging.shared:false}")
+    private boolean sharedStaging;
+
+    @Value("${media.ingestion.stale-after-hours:24}")
+    private int staleAfterHours;
+
+    @Value("${media.ingestion.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${media.ingestion.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${media.ingestion.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    @Value("${media.ingestion.lease-seconds:900}")
+    private int leaseSeconds;
+
+    @Value("${media.ingestion.poll-batch-size:50}")
+    private int pollBatchSize;
+
+    // Jobs handed to the executor and not yet finished, so the poller does not queue them twice
+    private final Set<Long> queuedJobs = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        // A generated ID (such as the container hostname) changes on redeploy and would strand the node's jobs
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException("media.ingestion.node-id must be set to an ID that is stable " +
+                    "across restarts and unique per node");
+        }
+        Gauge.builder("media.ingestion.queued", queuedJobs, Set::size)
+                .description("Media ingestion jobs handed to workers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create the jobs table if needed and allow pending attachments without a URL
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+                    "attachment_id BIGINT NOT NULL, " +
+                    "node_id VARCHAR(100) NOT NULL, " +
+                    "staged_path VARCHAR(500) NOT NULL, " +
+                    "folder VARCHAR(255) NOT NULL, " +
+                    "resource_type VARCHAR(10) NOT NULL, " +
+                    "status VARCHAR(20) NOT NULL, " +
+                    "attempts INT NOT NULL DEFAULT 0, " +
+                    "upload_offset BIGINT NOT NULL DEFAULT 0, " +
+                    "next_attempt_at DATETIME NOT NULL, " +
+                    "locked_until DATETIME NULL, " +
+                    "last_error VARCHAR(500) NULL, " +
+                    "created_at DATETIME NOT NULL, " +
+                    "INDEX idx_media_ingestion_node_status (node_id, status, next_attempt_at)" +
+                    ") ENGINE=InnoDB");
+
+            // ddl-auto=update never relaxes an existing NOT NULL column
+            String nullable = jdbcTemplate.query("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'issue_attachments' AND COLUMN_NAME = 'file_url'",
+                    rs -> rs.next() ? rs.getString(1) : null);
+            if ("NO".equals(nullable)) {
+                jdbcTemplate.execute("ALTER TABLE issue_attachments MODIFY file_url VARCHAR(500) NULL");
+            }
+
+            Files.createDirectories(Paths.get(stagingDir));
+            logger.info("Media ingestion ready on node {} (staging in {})", nodeId, stagingDir);
+        } catch (Exception e) {
+            logger.error("Error initializing media ingestion: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reason a file cannot be accepted as the given type, or null if it can
+     */
+    public String validationError(MultipartFile file, IssueAttachment.FileType fileType) {
+        if (file.isEmpty()) {
+            return "File is empty";
+        }
+        String contentType = file.getContentType();
+        if (fileType == IssueAttachment.FileType.IMAGE) {
+            if (file.getSize() > MAX_IMAGE_SIZE) {
+                return "Image file too large (max 10MB)";
+            }
+            if (contentType == null || !contentType.startsWith("image/")) {
+                return "Invalid image format";
+            }
+        } else {
+            if (file.getSize() > MAX_VIDEO_SIZE) {
+                return "Video file too large (max 100MB)";
+            }
+            if (contentType == null || !contentType.startsWith("video/")) {
+                return "Invalid video format";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stage a file and save it as a PENDING attachment of the issue; the upload to
+     * storage starts once the caller's transaction commits
+     */
+    @Transactional
+    public IssueAttachment stage(Issue issue, MultipartFile file, IssueAttachment.FileType fileType, String agentId)
+            throws IOException {
+        return stageAll(issue, List.of(new MediaFile(file, fileType)), agentId).get(0);
+    }
+
+    /**
+     * Stage all files of a request and save them as PENDING attachments of the
+     * issue, with their jobs, in one transaction: attachments are written with a
+     * single saveAll and jobs with one JDBC batch. Once it commits the jobs are
+     * handed to the workers together and uploaded in parallel.
+     */
+    @Transactional
+    public List<IssueAttachment> stageAll(Issue issue, List<MediaFile> files, String agentId) throws IOException {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+        List<Path> staged = new ArrayList<>();
+        try {
+            List<IssueAttachment> attachments = new ArrayList<>();
+            for (MediaFile mediaFile : files) {
+                MultipartFile file = mediaFile.getFile();
+                staged.add(stageFile(file));
+                IssueAttachment attachment = attachmentService.buildAttachment(
+                        issue, file.getOriginalFilename(), null, mediaFile.getFileType(), null,
+                        file.getSize(), file.getContentType(), agentId);
+                attachment.setUploadStatus(IssueAttachment.UploadStatus.PENDING);
+                attachments.add(attachment);
+            }
+            List<IssueAttachment> saved = attachmentService.createAttachments(attachments);
+
+            List<Long> jobIds = insertJobs(saved, staged, "issues/" + issue.getTicketNumber());
+            eventPublisher.publishEvent(new MediaStagedEvent(jobIds));
+            return saved;
+        } catch (IOException | RuntimeException e) {
+            staged.forEach(this::deleteStaged);
+            throw e;
+        }
+    }
+
+    /**
+     * Hand newly staged jobs to the workers once their rows are committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMediaStaged(MediaStagedEvent event) {
+        event.getJobIds().forEach(this::submit);
+    }
+
+    /**
+     * Pick up due jobs of this node: retries, jobs the executor had no room for
+     * and jobs left behind by a restart or an expired lease
+     */
+    @Scheduled(fixedDelayString = "${media.ingestion.poll-interval-ms:10000}")
+    public void dispatchDueJobs() {
+        try {
+            List<Long> jobIds = sharedStaging
+                    ? jdbcTemplate.queryForList(DUE_SHARED_JOBS_SQL, Long.class, pollBatchSize)
+                    : jdbcTemplate.queryForList(DUE_JOBS_SQL, Long.class, nodeId, pollBatchSize);
+            jobIds.forEach(this::submit);
+        } catch (Exception e) {
+            logger.error("Error polling media ingestion jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Mark attachments FAILED that are still PENDING long after they were staged,
+     * e.g. because the node holding the staged file is gone for good
+     */
+    @Scheduled(fixedDelayString = "${media.ingestion.sweep-interval-ms:3600000}")
+    public void sweepStaleAttachments() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(staleAfterHours));
+            List<Map<String, Object>> staleJobs = jdbcTemplate.queryForList(STALE_JOBS_SQL, cutoff, pollBatchSize);
+            for (Map<String, Object> job : staleJobs) {
+                String stagedOn = (String) job.get("node_id");
+                Path staged = sharedStaging || nodeId.equals(stagedOn)
+                        ? Paths.get((String) job.get("staged_path")) : null;
+                giveUp(((Number) job.get("id")).longValue(), ((Number) job.get("attachment_id")).longValue(),
+                        staged, "Not uploaded within " + staleAfterHours + "h (staged on " + stagedOn + ")");
+            }
+            int orphaned = jdbcTemplate.update(FAIL_ORPHANED_ATTACHMENTS_SQL, cutoff);
+            if (!staleJobs.isEmpty() || orphaned > 0) {
+                logger.warn("Marked {} stale pending attachments as failed", staleJobs.size() + orphaned);
+            }
+        } catch (Exception e) {
+            logger.error("Error sweeping stale media uploads: {}", e.getMessage());
+        }
+    }
+
+    private void submit(Long jobId) {
+        if (!queuedJobs.add(jobId)) {
+            return;
+        }
+        try {
+            mediaIngestionExecutor.execute(() -> {
+                try {
+                    process(jobId);
+                } finally {
+                    queuedJobs.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Workers are saturated; the poller retries the job later
+            queuedJobs.remove(jobId);
+        }
+    }
+
+    private void process(long jobId) {
+        if (jdbcTemplate.update(CLAIM_JOB_SQL, leaseSeconds, jobId) == 0) {
+            return; // done, not due yet, or claimed by another worker
+        }
+        Map<String, Object> job = jdbcTemplate.queryForMap(SELECT_JOB_SQL, jobId);
+        long attachmentId = ((Number) job.get("attachment_id")).longValue();
+        Path staged = Paths.get((String) job.get("staged_path"));
+        String folder = (String) job.get("folder");
+        String resourceType = (String) job.get("resource_type");
+        int attempts = ((Number) job.get("attempts")).intValue();
+        long uploadOffset = ((Number) job.get("upload_offset")).longValue();
+
+        // Attachment deleted (or already finished) while waiting: nothing to upload
+        Integer pending = jdbcTemplate.queryForObject(ATTACHMENT_PENDING_SQL, Integer.class, attachmentId);
+        if (pending == null || pending == 0) {
+            finish(jobId, staged);
+            return;
+        }
+        if (!Files.exists(staged)) {
+            giveUp(jobId, attachmentId, staged, "Staged file missing: " + staged);
+            return;
+        }
+
+        long start = System.nanoTime();
+        MediaStorage.StoredMedia stored;
+        try {
+            // Resume points are stored on the job, so a retry on any worker or after a restart continues there
+            stored = mediaStorage.store(staged, folder, resourceType, uploadOffset, offset -> saveOffset(jobId, offset));
+            recordUpload(resourceType, "success", start);
+        } catch (Exception e) {
+            recordUpload(resourceType, "failure", start);
+            if (attempts >= maxAttempts) {
+                giveUp(jobId, attachmentId, staged, e.getMessage());
+            } else {
+                long delay = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(attempts - 1, 20));
+                jdbcTemplate.update(RETRY_JOB_SQL, delay, truncate(e.getMessage()), jobId);
+                logger.warn("Upload of attachment {} failed (attempt {}), retrying in {}s: {}",
+                            attachmentId, attempts, delay, e.getMessage());
+            }
+            return;
+        }
+
+        if (jdbcTemplate.update(MARK_READY_SQL, stored.getUrl(), stored.getPublicId(), attachmentId) == 0) {
+            // Deleted during the upload: do not leave an orphan in storage
+            deleteStored(stored.getPublicId(), resourceType);
+        } else {
+            logger.info("Attachment {} uploaded to {}", attachmentId, stored.getPublicId());
+        }
+        finish(jobId, staged);
+    }
+
+    private void giveUp(long jobId, long attachmentId, Path staged, String error) {
+        jdbcTemplate.update(MARK_FAILED_SQL, attachmentId);
+        jdbcTemplate.update(FAIL_JOB_SQL, truncate(error), jobId);
+        if (staged != null) {
+            deleteStaged(staged);
+        }
+        logger.error("Giving up on upload of attachment {}: {}", attachmentId, error);
+    }
+
+    private void saveOffset(long jobId, long offset) {
+        try {
+            jdbcTemplate.update(SAVE_OFFSET_SQL, offset, jobId);
+        } catch (Exception e) {
+            logger.warn("Failed to save upload offset of job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void finish(long jobId, Path staged) {
+        jdbcTemplate.update(DELETE_JOB_SQL, jobId);
+        deleteStaged(staged);
+    }
+
+    private Path stageFile(MultipartFile file) throws IOException {
+        Path dir = Paths.get(stagingDir).toAbsolutePath();
+        Files.createDirectories(dir);
+        Path staged = dir.resolve(UUID.randomUUID() + extension(file.getOriginalFilename()));
+        // Streams (or moves) the multipart temp file instead of reading it into memory
+        file.transferTo(staged);
+        return staged;
+    }
+
+    private List<Long> insertJobs(List<IssueAttachment> attachments, List<Path> staged, String folder) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_JOB_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        IssueAttachment attachment = attachments.get(i);
+                        ps.setLong(1, attachment.getId());
+                        ps.setString(2, nodeId);
+                        ps.setString(3, staged.get(i).toString());
+                        ps.setString(4, folder);
+                        ps.setString(5, attachment.getFileType() == IssueAttachment.FileType.IMAGE ? "image" : "video");
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return attachments.size();
+                    }
+                },
+                keyHolder);
+        List<Long> jobIds = new ArrayList<>();
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            jobIds.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return jobIds;
+    }
+
+    private void deleteStored(String publicId, String resourceType) {
+        try {
+            mediaStorage.delete(publicId, resourceType);
+        } catch (Exception e) {
+            logger.warn("Failed to delete orphaned media {}: {}", publicId, e.getMessage());
+        }
+    }
+
+    private void deleteStaged(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            logger.warn("Failed to delete staged file {}: {}", staged, e.getMessage());
+        }
+    }
+
+    private void recordUpload(String resourceType, String result, long start) {
+        Timer.builder("media.upload")
+                .description("Duration of media uploads to storage")
+                .tag("type", resourceType)
+                .tag("result", result)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        String ext = dot >= 0 ? fileName.substring(dot) : "";
+        return ext.matches("\\.[A-Za-z0-9]{1,10}") ? ext.toLowerCase() : "";
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    /**
+     * An uploaded file and the attachment type it is stored as
+     */
+    public static final class MediaFile {
+        private final MultipartFile file;
+        private final IssueAttachment.FileType fileType;
+
+        public MediaFile(MultipartFile file, IssueAttachment.FileType fileType) {
+            this.file = file;
+            this.fileType = fileType;
+        }
+
+        public MultipartFile getFile() { return file; }
+        public IssueAttachment.FileType getFileType() { return fileType; }
+    }
+}
@@ -5,16 +5,30 @@ import com.cloudinary.utils.ObjectUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Cloudinary Media Service
- * Handles uploading images and videos for issue reporting system
+ * Handles direct image uploads and media deletion for issue reporting system;
+ * videos go through the staged MediaIngestionService path.
+ * Storage calls run on the bounded mediaUploadExecutor; each upload's duration
+ * is recorded as media.upload (tagged by type and result). Files are streamed
+ * to Cloudinary in chunks of media.upload.chunk-size, so an upload holds one
+ * chunk buffer in memory instead of the whole file.
  */
 @Service
 public class MediaService {
@@ -24,15 +38,24 @@ public class MediaService {
     @Autowired(required = false)
     private Cloudinary cloudinary;
     
+    @Autowired
+    @Qualifier("mediaUploadExecutor")
+    private Executor mediaUploadExecutor;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${media.upload.chunk-size:6000000}")
+    private int uploadChunkSize;
+    
     // Maximum file sizes (in bytes)
     private static final long MAX_IMAGE_SIZE = 10 * 1024 * 1024; // 10MB
-    private static final long MAX_VIDEO_SIZE = 100 * 1024 * 1024; // 100MB
     
     /**
      * Upload image to Cloudinary
      */
     public CompletableFuture<MediaUploadResult> uploadImage(MultipartFile file, String folder) {
-        return CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.supplyAsync(() -> timed("image", () -> {
             try {
                 if (cloudinary == null) {
                     logger.warn("Cloudinary not configured - image upload failed");
@@ -60,7 +83,7 @@ public class MediaService {
                         "fetch_format", "auto"
                 );
                 
-                Map uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
+                Map uploadResult = uploadStream(file, uploadParams);
                 
                 String publicId = (String) uploadResult.get("public_id");
                 String url = (String) uploadResult.get("secure_url");
@@ -72,53 +95,7 @@ public class MediaService {
                 logger.error("Failed to upload image: {}", e.getMessage());
                 return new MediaUploadResult(false, null, "Upload failed: " + e.getMessage(), null);
             }
-        });
-    }
-    
-    /**
-     * Upload video to Cloudinary
-     */
-    public CompletableFuture<MediaUploadResult> uploadVideo(MultipartFile file, String folder) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (cloudinary == null) {
-                    logger.warn("Cloudinary not configured - video upload failed");
-                    return new MediaUploadResult(false, null, "Cloudinary not configured", null);
-                }
-                
-                // Validate file
-                if (file.isEmpty()) {
-                    return new MediaUploadResult(false, null, "File is empty", null);
-                }
-                
-                if (file.getSize() > MAX_VIDEO_SIZE) {
-                    return new MediaUploadResult(false, null, "Video file too large (max 100MB)", null);
-                }
-                
-                if (!isVideoFile(file)) {
-                    return new MediaUploadResult(false, null, "Invalid video format", null);
-                }
-                
-                // Upload to Cloudinary
-                Map<String, Object> uploadParams = ObjectUtils.asMap(
-                        "folder", folder,
-                        "resource_type", "video",
-                        "quality", "auto"
-                );
-                
-                Map uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
-                
-                String publicId = (String) uploadResult.get("public_id");
-                String url = (String) uploadResult.get("secure_url");
-                
-                logger.info("Video uploaded successfully: {}", publicId);
-                return new MediaUploadResult(true, url, "Upload successful", publicId);
-                
-            } catch (IOException e) {
-                logger.error("Failed to upload video: {}", e.getMessage());
-                return new MediaUploadResult(false, null, "Upload failed: " + e.getMessage(), null);
-            }
-        });
+        }), mediaUploadExecutor);
     }
     
     /**
@@ -152,17 +129,30 @@ public class MediaService {
                 logger.error("Failed to delete media {}: {}", publicId, e.getMessage());
                 return false;
             }
-        });
+        }, mediaUploadExecutor);
     }
     
-    private boolean isImageFile(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && contentType.startsWith("image/");
+    private Map uploadStream(MultipartFile file, Map<String, Object> uploadParams) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return cloudinary.uploader().uploadLarge(in, uploadParams, uploadChunkSize);
+        }
+    }
+    
+    private MediaUploadResult timed(String type, Supplier<MediaUploadResult> upload) {
+        long start = System.nanoTime();
+        MediaUploadResult result = upload.get();
+        Timer.builder("media.upload")
+                .description("Duration of media uploads to storage")
+                .tag("type", type)
+                .tag("result", result.isSuccess() ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
     }
     
-    private boolean isVideoFile(MultipartFile file) {
+    private boolean isImageFile(MultipartFile file) {
         String contentType = file.getContentType();
-        return contentType != null && contentType.startsWith("video/");
+        return contentType != null && contentType.startsWith("image/");
     }
     
     /**
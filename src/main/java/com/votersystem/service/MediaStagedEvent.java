@@ -0,0 +1,20 @@
+package com.votersystem.service;
+
+import java.util.List;
+
+/**
+ * Published when uploaded files have been staged and their ingestion jobs
+ * inserted. Listeners receive it after the surrounding transaction commits.
+ */
+public class MediaStagedEvent {
+
+    private final List<Long> jobIds;
+
+    public MediaStagedEvent(List<Long> jobIds) {
+        this.jobIds = jobIds;
+    }
+
+    public List<Long> getJobIds() {
+        return jobIds;
+    }
+}
@@ -0,0 +1,53 @@
+package com.votersystem.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.LongConsumer;
+
+/**
+ * Storage backend that staged media files are pushed to.
+ * Cloudinary in production; media.storage.type=local selects a directory on
+ * the local filesystem instead (development and tests).
+ */
+public interface MediaStorage {
+
+    /**
+     * Store a file under the given folder
+     *
+     * @param resourceType "image" or "video"
+     */
+    default StoredMedia store(Path file, String folder, String resourceType) throws IOException {
+        return store(file, folder, resourceType, 0, offset -> { });
+    }
+
+    /**
+     * Store a file under the given folder, continuing an interrupted upload from
+     * resumeOffset where the backend supports it. While the upload progresses,
+     * resumePoints receives the offsets a later attempt can continue from.
+     *
+     * @param resourceType "image" or "video"
+     */
+    StoredMedia store(Path file, String folder, String resourceType,
+                      long resumeOffset, LongConsumer resumePoints) throws IOException;
+
+    /**
+     * Remove a stored file; returns false if the backend did not delete it
+     */
+    boolean delete(String publicId, String resourceType) throws IOException;
+
+    /**
+     * Location of a stored file
+     */
+    final class StoredMedia {
+        private final String url;
+        private final String publicId;
+
+        public StoredMedia(String url, String publicId) {
+            this.url = url;
+            this.publicId = publicId;
+        }
+
+        public String getUrl() { return url; }
+        public String getPublicId() { return publicId; }
+    }
+}
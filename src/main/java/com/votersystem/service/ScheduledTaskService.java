@@ -1,111 +1,104 @@
 package com.votersystem.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.votersystem.entity.Agent;
-import com.votersystem.entity.AgentLocation;
-import com.votersystem.repository.AgentRepository;
-import com.votersystem.repository.AgentLocationRepository;
-import com.votersystem.repository.TransactionRepository;
-
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 
+import com.votersystem.util.BusinessCalendar;
+
 @Service
 @Transactional
 public class ScheduledTaskService {
 
     @Autowired
-    private AgentRepository agentRepository;
+    private AgentPaymentRecalculationService agentPaymentRecalculationService;
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Value("${payments.reconciliation.bucket-days:2}")
+    private int reconciliationDays;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private AgentPresenceTracker agentPresenceTracker;
 
     @Autowired
-    private AgentLocationRepository agentLocationRepository;
+    private LocationTrackingService locationTrackingService;
 
     /**
      * Reset today's payments for all agents at midnight (00:00:00)
      * This ensures that "Today's Distribution" only shows current day's payments
      */
-    @Scheduled(cron = "0 0 0 * * *") // Run at midnight every day
+    @Scheduled(cron = "0 0 0 * * *", zone = "${app.business-time-zone:Asia/Kolkata}") // Run at business-day midnight
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // each chunk commits on its own
     public void resetTodaysPayments() {
         System.out.println("=== SCHEDULED TASK: Resetting today's payments at midnight ===");
         
-        List<Agent> allAgents = agentRepository.findAll();
-        
-        for (Agent agent : allAgents) {
-            // Recalculate today's payments from transaction data (should be 0 at midnight)
-            BigDecimal todayAmount = transactionRepository.getTodaysTotalAmountByAgent(agent.getId());
-            agent.setPaymentsToday(todayAmount != null ? todayAmount.intValue() : 0);
-            
-            agentRepository.save(agent);
-            
-            System.out.println("Reset today's payments for agent " + agent.getId() + 
-                             " - Today: ₹" + (todayAmount != null ? todayAmount : 0));
+        try {
+            // Taken from the new day's payment buckets (should be 0 at midnight)
+            int updated = agentPaymentRecalculationService.recalculateToday();
+            System.out.println("=== COMPLETED: Today's payments reset, " + updated + " agents changed ===");
+        } catch (Exception e) {
+            System.err.println("Error resetting today's payments: " + e.getMessage());
         }
-        
-        System.out.println("=== COMPLETED: Today's payments reset for " + allAgents.size() + " agents ===");
     }
     
     /**
-     * Recalculate all agent payment totals every hour to ensure data accuracy
-     * This handles any discrepancies that might occur
+     * Reconcile agent payment totals and the transaction rollups with the transaction data.
+     * Counters and rollups are maintained incrementally with every payment, so this only
+     * corrects discrepancies (e.g. manual data fixes); it runs nightly by default.
+     * Both steps scan recent transactions, so they run one after the other.
      */
-    @Scheduled(cron = "0 0 * * * *") // Run every hour
-    public void recalculateAgentPayments() {
-        System.out.println("=== SCHEDULED TASK: Hourly agent payment recalculation ===");
-        
-        List<Agent> allAgents = agentRepository.findAll();
+    @Scheduled(cron = "${payments.reconciliation.cron:0 30 3 * * *}", zone = "${app.business-time-zone:Asia/Kolkata}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // each chunk commits on its own
+    public void reconcilePayments() {
+        recalculateAgentPayments();
+        rebuildTransactionRollups();
+    }
+
+    private void recalculateAgentPayments() {
+        System.out.println("=== SCHEDULED TASK: Agent payment reconciliation ===");
         
-        for (Agent agent : allAgents) {
-            // Get accurate totals from transaction data
-            BigDecimal totalAmount = transactionRepository.getTotalAmountByAgent(agent.getId());
-            BigDecimal todayAmount = transactionRepository.getTodaysTotalAmountByAgent(agent.getId());
-            
-            // Update agent's payment fields
-            agent.setTotalPayments(totalAmount != null ? totalAmount.intValue() : 0);
-            agent.setPaymentsToday(todayAmount != null ? todayAmount.intValue() : 0);
-            
-            agentRepository.save(agent);
+        try {
+            int updated = agentPaymentRecalculationService.recalculateAll();
+            System.out.println("=== COMPLETED: Payment recalculation, " + updated + " agents changed ===");
+        } catch (Exception e) {
+            System.err.println("Error recalculating agent payments: " + e.getMessage());
+        }
+    }
+
+    // Rebuild the recent days of the rollups, correcting any drift of the incrementally maintained rows
+    private void rebuildTransactionRollups() {
+        try {
+            transactionRollupService.rebuild(businessCalendar.today().minusDays(Math.max(reconciliationDays, 1) - 1L));
+        } catch (Exception e) {
+            System.err.println("Error rebuilding transaction rollups: " + e.getMessage());
         }
-        
-        System.out.println("=== COMPLETED: Payment recalculation for " + allAgents.size() + " agents ===");
     }
 
     /**
-     * Check for agents that haven't sent location updates recently and mark them as offline
-     * Runs every 30 seconds to ensure timely offline detection
+     * Mark agents whose presence deadline expired as offline.
+     * Deadlines are tracked in memory from pings and location updates, so this
+     * only touches the database when an agent actually goes offline.
      */
-    @Scheduled(fixedRate = 30000) // Run every 30 seconds
+    @Scheduled(fixedDelayString = "${location.presence.check-interval-ms:1000}")
     public void detectOfflineAgents() {
         try {
-            // Consider agents offline if they haven't sent updates in the last 15 seconds
-            LocalDateTime cutoffTime = LocalDateTime.now().minusSeconds(15);
-
-            List<AgentLocation> staleLocations = agentLocationRepository.findStaleLocations(cutoffTime);
-
-            int offlineCount = 0;
-            for (AgentLocation location : staleLocations) {
-                // Only update if currently marked as ONLINE
-                if (location.getConnectionStatus() == AgentLocation.ConnectionStatus.ONLINE) {
-                    agentLocationRepository.updateConnectionStatus(
-                        location.getAgentId(),
-                        AgentLocation.ConnectionStatus.OFFLINE,
-                        LocalDateTime.now()
-                    );
-                    offlineCount++;
-                    System.out.println("Marked agent " + location.getAgentId() + " as OFFLINE due to inactivity");
-                }
+            List<String> expiredAgentIds = agentPresenceTracker.drainExpired();
+            if (expiredAgentIds.isEmpty()) {
+                return;
             }
 
-            if (offlineCount > 0) {
-                System.out.println("=== OFFLINE DETECTION: Marked " + offlineCount + " agents as offline ===");
-            }
+            int offlineCount = locationTrackingService.markAgentsOffline(expiredAgentIds);
+            System.out.println("=== OFFLINE DETECTION: Marked " + offlineCount + " agents as offline ===");
 
         } catch (Exception e) {
             System.err.println("Error in offline detection task: " + e.getMessage());
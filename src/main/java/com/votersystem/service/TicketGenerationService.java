@@ -1,17 +1,24 @@
 package com.votersystem.service;
 
-import com.votersystem.repository.IssueRepository;
+import com.votersystem.util.BusinessCalendar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Year;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service for generating unique issue ticket numbers
  * Format: ISS-YYYY-NNNNNN (e.g., ISS-2025-001234)
+ *
+ * Numbers come from blocks reserved in the shared per-year counter
+ * (TicketSequenceService), so they are unique across nodes and a ticket
+ * normally costs only an in-memory increment. Numbers left in a block when
+ * the node stops are skipped, so tickets are unique and increasing per node
+ * but not gap-free.
  */
 @Service
 public class TicketGenerationService {
@@ -19,31 +26,36 @@ public class TicketGenerationService {
     private static final Logger logger = LoggerFactory.getLogger(TicketGenerationService.class);
     
     @Autowired
-    private IssueRepository issueRepository;
+    private TicketSequenceService ticketSequenceService;
+    
+    @Autowired
+    private BusinessCalendar businessCalendar;
+    
+    @Value("${issues.ticket.block-size:100}")
+    private int blockSize;
     
     private static final String TICKET_PREFIX = "ISS";
     private static final int SEQUENCE_LENGTH = 6;
     
+    // Block currently handed out by this node
+    private final AtomicReference<Block> currentBlock = new AtomicReference<>();
+    
+    private final Object refillLock = new Object();
+    
     /**
      * Generate next unique ticket number for current year
      * @return Unique ticket number in format ISS-YYYY-NNNNNN
      */
-    @Transactional
-    public synchronized String generateTicketNumber() {
+    public String generateTicketNumber() {
         try {
-            String currentYear = String.valueOf(Year.now().getValue());
-            
-            // Get next sequence number for current year
-            Integer nextSequence = issueRepository.getNextSequenceNumber(currentYear);
-            if (nextSequence == null) {
-                nextSequence = 1;
-            }
+            int currentYear = businessCalendar.today().getYear();
+            long nextSequence = nextSequence(currentYear);
             
             // Format sequence number with leading zeros
             String sequenceStr = String.format("%0" + SEQUENCE_LENGTH + "d", nextSequence);
             
             // Generate ticket number
-            String ticketNumber = String.format("%s-%s-%s", TICKET_PREFIX, currentYear, sequenceStr);
+            String ticketNumber = String.format("%s-%d-%s", TICKET_PREFIX, currentYear, sequenceStr);
             
             logger.info("Generated ticket number: {}", ticketNumber);
             return ticketNumber;
@@ -54,6 +66,44 @@ public class TicketGenerationService {
         }
     }
     
+    private long nextSequence(int year) {
+        Block block = currentBlock.get();
+        if (block != null && block.year == year) {
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return value;
+            }
+        }
+        
+        // Block exhausted or new year: one thread reserves the next block, the others wait for it
+        synchronized (refillLock) {
+            block = currentBlock.get();
+            if (block != null && block.year == year) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            int size = Math.max(blockSize, 1);
+            long first = ticketSequenceService.reserveBlock(year, size);
+            Block reserved = new Block(year, first + 1, first + size);
+            currentBlock.set(reserved);
+            return first;
+        }
+    }
+    
+    private static final class Block {
+        private final int year;
+        private final AtomicLong next;
+        private final long end;
+        
+        private Block(int year, long next, long end) {
+            this.year = year;
+            this.next = new AtomicLong(next);
+            this.end = end;
+        }
+    }
+    
     /**
      * Validate ticket number format
      * @param ticketNumber Ticket number to validate
@@ -0,0 +1,74 @@
+package com.votersystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-year ticket counters in ticket_sequences, shared by all nodes.
+ * A node reserves a block of numbers at a time by advancing the year's row
+ * under a row lock, in its own short transaction, so the lock is never held
+ * while an issue is being created.
+ */
+@Service
+public class TicketSequenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketSequenceService.class);
+
+    private static final String TABLE_NAME = "ticket_sequences";
+
+    // First counter value of a year: continues after the highest existing ticket of that year
+    private static final String SEED_YEAR_SQL =
+            "INSERT IGNORE INTO " + TABLE_NAME + " (seq_year, next_value) " +
+            "SELECT ?, COALESCE(MAX(CAST(SUBSTRING(ticket_number, 10) AS UNSIGNED)), 0) + 1 " +
+            "FROM issues WHERE ticket_number LIKE ?";
+
+    private static final String LOCK_YEAR_SQL =
+            "SELECT next_value FROM " + TABLE_NAME + " WHERE seq_year = ? FOR UPDATE";
+
+    private static final String ADVANCE_YEAR_SQL =
+            "UPDATE " + TABLE_NAME + " SET next_value = next_value + ? WHERE seq_year = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the counter table if needed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " (" +
+                    "seq_year INT NOT NULL, " +
+                    "next_value BIGINT NOT NULL, " +
+                    "PRIMARY KEY (seq_year)" +
+                    ") ENGINE=InnoDB");
+        } catch (Exception e) {
+            logger.error("Error initializing ticket sequences: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reserve the next block of sequence numbers of a year
+     *
+     * @return first number of the block; the block is [first, first + size)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(int year, int size) {
+        Long next = jdbcTemplate.query(LOCK_YEAR_SQL, rs -> rs.next() ? rs.getLong(1) : null, year);
+        if (next == null) {
+            // First block of the year: only this scan ever looks at the issues table
+            jdbcTemplate.update(SEED_YEAR_SQL, year, "ISS-" + year + "-%");
+            next = jdbcTemplate.queryForObject(LOCK_YEAR_SQL, Long.class, year);
+        }
+        jdbcTemplate.update(ADVANCE_YEAR_SQL, size, year);
+        logger.info("Reserved ticket numbers {}-{} for {}", next, next + size - 1, year);
+        return next;
+    }
+}
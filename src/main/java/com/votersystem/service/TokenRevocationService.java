@@ -0,0 +1,63 @@
+package com.votersystem.service;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides which tokens must no longer be accepted.
+ * Used by the stateless JWT mode, where requests are authenticated from the
+ * token claims alone: tokens of accounts that are gone (deleted, or whose
+ * mobile changed) or not active are rejected, and after a password change,
+ * mobile change or deletion every token issued before that moment is
+ * rejected. The revocation epoch is stored on the account row
+ * (tokens_revoked_before), so it survives restarts and is shared by all nodes;
+ * reads go through the CustomUserDetailsService cache, which the change evicts
+ * locally and other nodes refresh within security.user-cache.ttl-ms.
+ * Usernames are the mobile numbers used as JWT subject.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final String REVOKE_AGENT_SQL = "UPDATE agents SET tokens_revoked_before = ? WHERE mobile = ?";
+
+    private static final String REVOKE_ADMIN_SQL =
+            "UPDATE administrators SET tokens_revoked_before = ? WHERE mobile = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    /**
+     * Revoke every token of a username issued up to now (password or mobile change, deletion).
+     * Joins the caller's transaction; callers publish an AccountChangedEvent to evict the cached account.
+     */
+    public void revokeTokensIssuedBefore(String username) {
+        long now = System.currentTimeMillis();
+        if (jdbcTemplate.update(REVOKE_ADMIN_SQL, now, username) == 0) {
+            jdbcTemplate.update(REVOKE_AGENT_SQL, now, username);
+        }
+    }
+
+    /**
+     * Whether a token with this subject and issue time must be rejected
+     */
+    public boolean isRevoked(String username, Date issuedAt) {
+        if (!userDetailsService.isActive(username)) {
+            return true;
+        }
+        Long cutoff = userDetailsService.getTokensRevokedBefore(username);
+        if (cutoff == null) {
+            return false;
+        }
+        if (issuedAt == null) {
+            return true;
+        }
+        // iat has second precision, so a token issued in the same second as the change stays valid
+        return issuedAt.getTime() < cutoff / 1000 * 1000;
+    }
+}
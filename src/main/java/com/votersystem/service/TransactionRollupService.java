@@ -0,0 +1,191 @@
+package com.votersystem.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.votersystem.entity.Transaction;
+import com.votersystem.util.BusinessCalendar;
+
+/**
+ * Pre-aggregated transaction rollups, maintained on insert.
+ * transaction_daily_rollup holds count and amount per day and status,
+ * admin_payment_daily holds completed payments per sub-admin (agent's createdBy)
+ * and day; per-agent buckets are kept by AgentPaymentCounterService. Statistics
+ * are read from these tables in O(days) instead of scanning transactions, and
+ * rebuild() recomputes a range of days from the transactions table.
+ */
+@Service
+public class TransactionRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRollupService.class);
+
+    private static final String DAILY_TABLE = "transaction_daily_rollup";
+
+    private static final String ADMIN_TABLE = "admin_payment_daily";
+
+    private static final String UPSERT_DAILY_SQL =
+            "INSERT INTO " + DAILY_TABLE + " (day, status, txn_count, amount) VALUES (?, ?, 1, ?) " +
+            "ON DUPLICATE KEY UPDATE txn_count = txn_count + 1, amount = amount + VALUES(amount)";
+
+    private static final String UPSERT_ADMIN_SQL =
+            "INSERT INTO " + ADMIN_TABLE + " (created_by, day, amount, payment_count) " +
+            "SELECT a.created_by, ?, ?, 1 FROM agents a WHERE a.id = ? AND a.created_by IS NOT NULL " +
+            "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), payment_count = payment_count + 1";
+
+    // Rows are bucketed by business day: created_at shifted by the storage-to-business offset
+    private static final String REBUILD_DAILY_SQL =
+            "INSERT INTO " + DAILY_TABLE + " (day, status, txn_count, amount) " +
+            "SELECT DATE(created_at + INTERVAL ? SECOND) AS day, status, COUNT(*), COALESCE(SUM(amount), 0) " +
+            "FROM transactions WHERE created_at >= ? GROUP BY day, status";
+
+    private static final String REBUILD_ADMIN_SQL =
+            "INSERT INTO " + ADMIN_TABLE + " (created_by, day, amount, payment_count) " +
+            "SELECT a.created_by, DATE(t.created_at + INTERVAL ? SECOND) AS day, SUM(t.amount), COUNT(*) " +
+            "FROM transactions t JOIN agents a ON a.id = t.agent_id " +
+            "WHERE t.status = 'COMPLETED' AND a.created_by IS NOT NULL AND t.created_at >= ? " +
+            "GROUP BY a.created_by, day";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AgentPaymentCounterService agentPaymentCounterService;
+
+    @Autowired
+    private BusinessCalendar businessCalendar;
+
+    /**
+     * Create the rollup tables if needed and backfill them when they are empty
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DAILY_TABLE + " (" +
+                    "day DATE NOT NULL, " +
+                    "status VARCHAR(20) NOT NULL, " +
+                    "txn_count BIGINT NOT NULL DEFAULT 0, " +
+                    "amount DECIMAL(16,2) NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (day, status)" +
+                    ") ENGINE=InnoDB");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + ADMIN_TABLE + " (" +
+                    "created_by VARCHAR(50) NOT NULL, " +
+                    "day DATE NOT NULL, " +
+                    "amount DECIMAL(16,2) NOT NULL DEFAULT 0, " +
+                    "payment_count BIGINT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (created_by, day)" +
+                    ") ENGINE=InnoDB");
+
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + DAILY_TABLE, Integer.class);
+            if (rows != null && rows == 0) {
+                rebuild(LocalDate.of(1970, 1, 1));
+            }
+        } catch (Exception e) {
+            logger.error("Error initializing transaction rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add a newly inserted transaction to the rollups; joins the caller's
+     * transaction so the rollups commit or roll back with the row itself
+     */
+    public void record(Transaction transaction, LocalDate day) {
+        Date rollupDay = Date.valueOf(day);
+        BigDecimal amount = transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO;
+        jdbcTemplate.update(UPSERT_DAILY_SQL, rollupDay, transaction.getStatus().name(), amount);
+
+        if (transaction.getStatus() == Transaction.TransactionStatus.COMPLETED) {
+            agentPaymentCounterService.recordPayment(transaction.getAgentId(), amount, day);
+            jdbcTemplate.update(UPSERT_ADMIN_SQL, rollupDay, amount, transaction.getAgentId());
+        }
+    }
+
+    /**
+     * Recompute the daily and sub-admin rollups from the given business day on
+     */
+    @Transactional
+    public void rebuild(LocalDate fromDay) {
+        Date from = Date.valueOf(fromDay);
+        jdbcTemplate.update("DELETE FROM " + DAILY_TABLE + " WHERE day >= ?", from);
+        jdbcTemplate.update("DELETE FROM " + ADMIN_TABLE + " WHERE day >= ?", from);
+        int offsetSeconds = businessCalendar.storageToBusinessOffsetSeconds();
+        LocalDateTime start = businessCalendar.day(fromDay).getStart();
+        int daily = jdbcTemplate.update(REBUILD_DAILY_SQL, offsetSeconds, start);
+        int admin = jdbcTemplate.update(REBUILD_ADMIN_SQL, offsetSeconds, start);
+        logger.info("Rebuilt transaction rollups from {}: {} daily rows, {} sub-admin rows", fromDay, daily, admin);
+    }
+
+    /**
+     * Transaction count and amount per status over all days
+     */
+    public Map<String, Totals> getTotalsByStatus() {
+        Map<String, Totals> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT status, SUM(txn_count), COALESCE(SUM(amount), 0) FROM " + DAILY_TABLE +
+                " GROUP BY status", rs -> {
+                    totals.put(rs.getString(1), new Totals(rs.getLong(2), rs.getBigDecimal(3)));
+                });
+        return totals;
+    }
+
+    /**
+     * Transaction count and amount per status on one day
+     */
+    public Map<String, Totals> getTotalsByStatus(LocalDate day) {
+        Map<String, Totals> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT status, txn_count, amount FROM " + DAILY_TABLE + " WHERE day = ?", rs -> {
+            totals.put(rs.getString(1), new Totals(rs.getLong(2), rs.getBigDecimal(3)));
+        }, Date.valueOf(day));
+        return totals;
+    }
+
+    /**
+     * Completed transactions per month, newest first: [year, month, count, amount]
+     */
+    public List<Object[]> getMonthlyCompletedTotals() {
+        return jdbcTemplate.query("SELECT YEAR(day), MONTH(day), SUM(txn_count), SUM(amount) FROM " + DAILY_TABLE +
+                " WHERE status = 'COMPLETED' GROUP BY YEAR(day), MONTH(day) ORDER BY YEAR(day) DESC, MONTH(day) DESC",
+                (rs, rowNum) -> new Object[] {rs.getInt(1), rs.getInt(2), rs.getLong(3), rs.getBigDecimal(4)});
+    }
+
+    /**
+     * Completed payment amount of all agents per sub-admin (keyed by createdBy)
+     */
+    public Map<String, BigDecimal> getCompletedAmountBySubAdmin() {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT created_by, SUM(amount) FROM " + ADMIN_TABLE + " GROUP BY created_by", rs -> {
+            totals.put(rs.getString(1), rs.getBigDecimal(2));
+        });
+        return totals;
+    }
+
+    public static final class Totals {
+        private final long count;
+        private final BigDecimal amount;
+
+        private Totals(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.votersystem.service;
 import com.votersystem.controller.TransactionController;
 import com.votersystem.entity.Transaction;
 import com.votersystem.repository.TransactionRepository;
+import com.votersystem.util.BusinessCalendar;
+import com.votersystem.util.TimeWindow;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,6 +25,15 @@ public class TransactionService {
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private AgentPaymentCounterService agentPaymentCounterService;
+    
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Autowired
+    private BusinessCalendar businessCalendar;
+    
     public Page<Transaction> getAllTransactions(Pageable pageable) {
         try {
             return transactionRepository.findAllWithUserAndAgentOrderByCreatedAtDesc(pageable);
@@ -46,7 +58,8 @@ public class TransactionService {
     }
     
     public List<Transaction> getTodaysTransactions() {
-        return transactionRepository.findTodaysTransactions();
+        TimeWindow today = businessCalendar.todayWindow();
+        return transactionRepository.findTransactionsInWindow(today.getStart(), today.getEnd());
     }
     
     public List<Transaction> getTransactionsByDateRange(String startDate, String endDate) {
@@ -56,13 +69,17 @@ public class TransactionService {
     }
     
     public TransactionController.TransactionStatistics getTransactionStatistics() {
-        Long totalTransactions = transactionRepository.countTotalTransactions();
-        Long completedTransactions = transactionRepository.countByStatus(Transaction.TransactionStatus.COMPLETED);
-        Long pendingTransactions = transactionRepository.countByStatus(Transaction.TransactionStatus.PENDING);
-        Long failedTransactions = transactionRepository.countByStatus(Transaction.TransactionStatus.FAILED);
-        BigDecimal totalAmount = transactionRepository.getTotalAmount();
-        BigDecimal todayAmount = transactionRepository.getTodaysTotalAmount();
-        Long todayTransactions = transactionRepository.countTodaysTransactions();
+        // Served from the daily rollup: one row per day and status
+        Map<String, TransactionRollupService.Totals> allTime = transactionRollupService.getTotalsByStatus();
+        Map<String, TransactionRollupService.Totals> today = transactionRollupService.getTotalsByStatus(businessCalendar.today());
+        
+        Long completedTransactions = countOf(allTime, Transaction.TransactionStatus.COMPLETED);
+        Long pendingTransactions = countOf(allTime, Transaction.TransactionStatus.PENDING);
+        Long failedTransactions = countOf(allTime, Transaction.TransactionStatus.FAILED);
+        Long totalTransactions = allTime.values().stream().mapToLong(TransactionRollupService.Totals::getCount).sum();
+        BigDecimal totalAmount = amountOf(allTime, Transaction.TransactionStatus.COMPLETED);
+        BigDecimal todayAmount = amountOf(today, Transaction.TransactionStatus.COMPLETED);
+        Long todayTransactions = today.values().stream().mapToLong(TransactionRollupService.Totals::getCount).sum();
         
         return new TransactionController.TransactionStatistics(
             totalTransactions, completedTransactions, pendingTransactions, failedTransactions,
@@ -71,7 +88,7 @@ public class TransactionService {
     }
     
     public List<TransactionController.MonthlyStats> getMonthlyStatistics() {
-        List<Object[]> results = transactionRepository.getMonthlyStatistics();
+        List<Object[]> results = transactionRollupService.getMonthlyCompletedTotals();
         
         return results.stream().map(result -> {
             int year = ((Number) result[0]).intValue();
@@ -83,6 +100,18 @@ public class TransactionService {
         }).collect(Collectors.toList());
     }
 
+    private static Long countOf(Map<String, TransactionRollupService.Totals> totals,
+                                Transaction.TransactionStatus status) {
+        TransactionRollupService.Totals entry = totals.get(status.name());
+        return entry != null ? entry.getCount() : 0L;
+    }
+
+    private static BigDecimal amountOf(Map<String, TransactionRollupService.Totals> totals,
+                                       Transaction.TransactionStatus status) {
+        TransactionRollupService.Totals entry = totals.get(status.name());
+        return entry != null ? entry.getAmount() : BigDecimal.ZERO;
+    }
+
     // Create sample transaction for testing
     public Transaction createSampleTransaction(TransactionController.CreateTransactionRequest request) {
         Transaction transaction = new Transaction();
@@ -94,7 +123,9 @@ public class TransactionService {
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         transaction.setCreatedAt(LocalDateTime.now());
 
-        return transactionRepository.save(transaction);
+        Transaction saved = transactionRepository.save(transaction);
+        transactionRollupService.record(saved, businessCalendar.dayOf(transaction.getCreatedAt()));
+        return saved;
     }
 
     // Initialize sample transaction data for testing
@@ -119,11 +150,13 @@ public class TransactionService {
             transaction.setCreatedAt(LocalDateTime.now().minusHours(i));
 
             transactionRepository.save(transaction);
+            transactionRollupService.record(transaction, businessCalendar.dayOf(transaction.getCreatedAt()));
         }
     }
     
     public List<Transaction> getTodaysTransactionsByAgent(String agentId) {
-        return transactionRepository.findTodaysTransactionsByAgent(agentId);
+        TimeWindow today = businessCalendar.todayWindow();
+        return transactionRepository.findTransactionsByAgentInWindow(agentId, today.getStart(), today.getEnd());
     }
     
     public BigDecimal getTotalAmountByAgent(String agentId) {
@@ -131,10 +164,11 @@ public class TransactionService {
     }
     
     public BigDecimal getTodaysTotalAmountByAgent(String agentId) {
-        return transactionRepository.getTodaysTotalAmountByAgent(agentId);
+        return agentPaymentCounterService.getAmount(agentId, businessCalendar.today());
     }
     
     public Long countTodaysTransactionsByAgent(String agentId) {
-        return transactionRepository.countTodaysTransactionsByAgent(agentId);
+        TimeWindow today = businessCalendar.todayWindow();
+        return transactionRepository.countTransactionsByAgentInWindow(agentId, today.getStart(), today.getEnd());
     }
 }
@@ -22,6 +22,8 @@ import com.votersystem.entity.User;
 import com.votersystem.repository.AgentRepository;
 import com.votersystem.repository.TransactionRepository;
 import com.votersystem.repository.UserRepository;
+import com.votersystem.util.BusinessCalendar;
+import com.votersystem.util.TimeWindow;
 
 @Service
 @Transactional
@@ -36,6 +38,12 @@ public class UserService {
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    
+    @Autowired
+    private BusinessCalendar businessCalendar;
+    
     public Page<User> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
@@ -169,19 +177,6 @@ public class UserService {
         user.markAsPaid(agentUsername, amount);
         user = userRepository.save(user);
         
-        // Update agent statistics - recalculate from transaction data to ensure accuracy
-        // This will properly calculate today's vs total amounts
-        BigDecimal totalAmount = transactionRepository.getTotalAmountByAgent(agent.getId());
-        BigDecimal todayAmount = transactionRepository.getTodaysTotalAmountByAgent(agent.getId());
-
-        // Add the current transaction amount to the calculations
-        totalAmount = totalAmount.add(amount);
-        todayAmount = todayAmount.add(amount);
-
-        agent.setTotalPayments(totalAmount.intValue());
-        agent.setPaymentsToday(todayAmount.intValue());
-        agentRepository.save(agent);
-        
         // Create transaction record
         Transaction transaction = new Transaction(
             generateTransactionId(),
@@ -194,6 +189,9 @@ public class UserService {
         );
         transactionRepository.save(transaction);
         
+        // Update agent statistics and rollups incrementally, in the same transaction as the record
+        transactionRollupService.record(transaction, businessCalendar.today());
+        
         return user;
     }
     
@@ -206,7 +204,8 @@ public class UserService {
         Long paidUsers = userRepository.countPaidUsers();
         Long unpaidUsers = userRepository.countUnpaidUsers();
         Double totalAmountCollected = userRepository.getTotalAmountCollected();
-        Long usersPaidToday = userRepository.countUsersPaidToday();
+        TimeWindow today = businessCalendar.todayWindow();
+        Long usersPaidToday = userRepository.countUsersPaidInWindow(today.getStart(), today.getEnd());
         
         return new UserController.UserStatistics(
             totalUsers, paidUsers, unpaidUsers, totalAmountCollected, usersPaidToday
@@ -214,11 +213,13 @@ public class UserService {
     }
     
     public List<User> getUsersPaidToday() {
-        return userRepository.getUsersPaidToday();
+        TimeWindow today = businessCalendar.todayWindow();
+        return userRepository.getUsersPaidInWindow(today.getStart(), today.getEnd());
     }
     
     public List<User> getUsersPaidTodayByAgent(String agentUsername) {
-        return userRepository.getUsersPaidTodayByAgent(agentUsername);
+        TimeWindow today = businessCalendar.todayWindow();
+        return userRepository.getUsersPaidByAgentInWindow(agentUsername, today.getStart(), today.getEnd());
     }
     
     public List<User> getUsersPaidByAgent(String agentUsername) {
@@ -234,7 +235,8 @@ public class UserService {
     }
     
     public Long countUsersPaidTodayByAgent(String agentUsername) {
-        return userRepository.countUsersPaidTodayByAgent(agentUsername);
+        TimeWindow today = businessCalendar.todayWindow();
+        return userRepository.countUsersPaidByAgentInWindow(agentUsername, today.getStart(), today.getEnd());
     }
     
     public Page<User> searchUsers(String firstName, String lastName, Integer age, User.Gender gender,
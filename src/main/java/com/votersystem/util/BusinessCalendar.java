@@ -0,0 +1,94 @@
+package com.votersystem.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Business-day calendar. "Today" and "this month" follow the configured business
+ * time zone (e.g. IST) even when the server runs in UTC, and are turned into
+ * half-open windows in the zone the LocalDateTime columns are stored in.
+ */
+@Component
+public class BusinessCalendar {
+
+    @Value("${app.business-time-zone:Asia/Kolkata}")
+    private String businessTimeZone;
+
+    // Zone of persisted LocalDateTime values; empty means the JVM default
+    @Value("${app.storage-time-zone:}")
+    private String storageTimeZone;
+
+    private ZoneId businessZone;
+
+    private ZoneId storageZone;
+
+    @PostConstruct
+    public void init() {
+        businessZone = ZoneId.of(businessTimeZone);
+        storageZone = storageTimeZone == null || storageTimeZone.isBlank()
+                ? ZoneId.systemDefault() : ZoneId.of(storageTimeZone);
+    }
+
+    public ZoneId getBusinessZone() {
+        return businessZone;
+    }
+
+    /**
+     * Current business day
+     */
+    public LocalDate today() {
+        return LocalDate.now(businessZone);
+    }
+
+    /**
+     * Business day a stored timestamp falls on
+     */
+    public LocalDate dayOf(LocalDateTime storedTime) {
+        return storedTime.atZone(storageZone).withZoneSameInstant(businessZone).toLocalDate();
+    }
+
+    /**
+     * Window covering one business day
+     */
+    public TimeWindow day(LocalDate day) {
+        return new TimeWindow(toStorage(day.atStartOfDay(businessZone)),
+                toStorage(day.plusDays(1).atStartOfDay(businessZone)));
+    }
+
+    /**
+     * Window covering the current business day
+     */
+    public TimeWindow todayWindow() {
+        return day(today());
+    }
+
+    /**
+     * Window covering the current business month
+     */
+    public TimeWindow currentMonthWindow() {
+        LocalDate firstDay = today().withDayOfMonth(1);
+        return new TimeWindow(toStorage(firstDay.atStartOfDay(businessZone)),
+                toStorage(firstDay.plusMonths(1).atStartOfDay(businessZone)));
+    }
+
+    /**
+     * Seconds to add to a stored timestamp to get business-zone wall time (current offsets),
+     * for SQL that has to bucket many rows by business day, e.g. DATE(col + INTERVAL ? SECOND)
+     */
+    public int storageToBusinessOffsetSeconds() {
+        Instant now = Instant.now();
+        return businessZone.getRules().getOffset(now).getTotalSeconds()
+                - storageZone.getRules().getOffset(now).getTotalSeconds();
+    }
+
+    private LocalDateTime toStorage(ZonedDateTime businessTime) {
+        return businessTime.withZoneSameInstant(storageZone).toLocalDateTime();
+    }
+}
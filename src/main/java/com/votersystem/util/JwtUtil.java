@@ -2,13 +2,20 @@ package com.votersystem.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -20,9 +27,64 @@ public class JwtUtil {
     
     @Value("${jwt.expiration}")
     private Long expiration;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    // Key and parser are immutable and thread-safe, so build them once
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // Claims of already verified tokens, keyed by SHA-256 of the token; least recently used entries
+    // are evicted once the cache is full, so new tokens are always cached in constant time
+    private Map<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheMaxSize;
+            }
+        });
+    }
     
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+
+    /**
+     * Verify a token once and return all its claims.
+     * Repeated calls for the same unexpired token are served from a bounded cache.
+     *
+     * @throws JwtException if the token is invalid or expired
+     */
+    public Claims getVerifiedClaims(String token) {
+        String key = hashToken(token);
+        Claims cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.getExpiration() != null && cached.getExpiration().before(new Date())) {
+                verifiedTokens.remove(key);
+                throw new ExpiredJwtException(null, cached, "JWT expired");
+            }
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(key, claims);
+        return claims;
+    }
+
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     // Extract username from token
@@ -43,11 +105,7 @@ public class JwtUtil {
     
     // Extract all claims from token
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getVerifiedClaims(token);
     }
     
     // Check if token is expired
@@ -0,0 +1,35 @@
+package com.votersystem.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * Half-open time range [start, end) in the time zone timestamps are stored in.
+ * Used as "col >= start AND col < end" so the column itself stays indexable.
+ */
+public class TimeWindow {
+
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public TimeWindow(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public boolean contains(LocalDateTime time) {
+        return time != null && !time.isBefore(start) && time.isBefore(end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
@@ -0,0 +1,12 @@
+-- Migration V11: Indexes for time-window queries
+-- "Today" and "this month" filters are half-open ranges (col >= start AND col < end)
+-- instead of DATE(col) = CURRENT_DATE, so they can use these indexes.
+
+CREATE INDEX idx_transactions_created_at ON transactions (created_at);
+CREATE INDEX idx_transactions_agent_created ON transactions (agent_id, created_at);
+CREATE INDEX idx_transactions_status_created ON transactions (status, created_at);
+
+CREATE INDEX idx_users_paid_paid_date ON users (paid, paid_date);
+CREATE INDEX idx_users_paid_by_paid_date ON users (paid_by, paid_date);
+
+CREATE INDEX idx_issues_submission_date ON issues (submission_date);
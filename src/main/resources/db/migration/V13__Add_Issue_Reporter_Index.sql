@@ -0,0 +1,5 @@
+-- Migration V13: Index for the sub-admin issue listing
+-- Issues are selected with reported_by IN (agent IDs and mobiles of the sub-admin's agents)
+-- and paged by submission date in the database.
+
+CREATE INDEX idx_issues_reported_by_submission_date ON issues (reported_by, submission_date);
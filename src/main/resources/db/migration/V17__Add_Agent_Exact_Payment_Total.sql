@@ -0,0 +1,17 @@
+-- Migration V17: Keep an exact running payment total per agent
+-- total_payments is an Integer column; adding each payment's truncated amount to it
+-- drifts from the reconciled TRUNCATE(SUM(amount), 0) once amounts carry paise.
+-- The exact sum is kept here and total_payments is always truncated from it.
+
+ALTER TABLE agents ADD COLUMN total_payments_amount DECIMAL(16,2) NOT NULL DEFAULT 0;
+
+-- Backfill from completed transactions
+UPDATE agents a
+JOIN (
+    SELECT agent_id, SUM(amount) AS total_amount
+    FROM transactions
+    WHERE status = 'COMPLETED'
+    GROUP BY agent_id
+) t ON t.agent_id = a.id
+SET a.total_payments_amount = t.total_amount,
+    a.total_payments = TRUNCATE(t.total_amount, 0);
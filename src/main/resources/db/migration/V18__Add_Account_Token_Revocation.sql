@@ -0,0 +1,8 @@
+-- Migration V18: Persist token revocation per account
+-- Tokens of an account issued before tokens_revoked_before (epoch millis) are
+-- rejected in stateless JWT mode. Set on password change, mobile change and
+-- deletion; stored on the row so it survives restarts and applies on every node.
+
+ALTER TABLE agents ADD COLUMN tokens_revoked_before BIGINT NULL;
+
+ALTER TABLE administrators ADD COLUMN tokens_revoked_before BIGINT NULL;
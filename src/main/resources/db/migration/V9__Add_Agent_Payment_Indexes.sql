@@ -0,0 +1,7 @@
+-- Migration V9: Indexes for agent listings sorted by payment totals
+-- Supports the paged GET /admins/agents/summary listing (all agents or one sub-admin's agents).
+
+CREATE INDEX idx_agents_total_payments ON agents (total_payments);
+CREATE INDEX idx_agents_payments_today ON agents (payments_today);
+CREATE INDEX idx_agents_created_by_total_payments ON agents (created_by, total_payments);
+CREATE INDEX idx_agents_created_by_payments_today ON agents (created_by, payments_today);
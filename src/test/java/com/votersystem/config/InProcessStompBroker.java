@@ -0,0 +1,169 @@
+package com.votersystem.config;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.tcp.ReconnectStrategy;
+import org.springframework.messaging.tcp.TcpConnection;
+import org.springframework.messaging.tcp.TcpConnectionHandler;
+import org.springframework.messaging.tcp.TcpOperations;
+
+/**
+ * In-process stand-in for an external STOMP broker, plugged into the broker relay
+ * as its TCP client. Every relay connection (from any number of "nodes") is a
+ * session of the same broker: SUBSCRIBE registers a subscription and SEND is
+ * delivered as MESSAGE to all subscriptions of exactly that destination, as
+ * RabbitMQ's or Artemis' STOMP adapters would. Frames are exchanged as decoded
+ * messages, so no sockets or reactor-netty are needed. Registered as a
+ * "stompRelayTcpClient" bean it replaces the relay's TCP client in WebSocketConfig.
+ */
+public class InProcessStompBroker implements TcpOperations<byte[]> {
+
+    // Frames to the relay are delivered on one thread, in order, like a socket read loop
+    private final ExecutorService delivery = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stomp-stand-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong messageIds = new AtomicLong();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    @Override
+    public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler) {
+        Connection connection = new Connection(handler);
+        connections.add(connection);
+        delivery.execute(() -> handler.afterConnected(connection));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler, ReconnectStrategy strategy) {
+        return connectAsync(handler);
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdownAsync() {
+        connections.forEach(Connection::close);
+        delivery.shutdown();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * MESSAGE frames sent to subscribers so far
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    private void deliver(Connection connection, StompHeaderAccessor accessor, byte[] payload) {
+        accessor.setLeaveMutable(true);
+        Message<byte[]> frame = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+        delivery.execute(() -> {
+            if (connection.open) {
+                connection.handler.handleMessage(frame);
+            }
+        });
+    }
+
+    private void receive(Connection connection, Message<byte[]> message) {
+        StompHeaderAccessor frame = StompHeaderAccessor.wrap(message);
+        StompCommand command = frame.getCommand();
+        if (command == null || frame.isHeartbeat()) {
+            return;
+        }
+        switch (command) {
+            case CONNECT, STOMP -> {
+                StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+                connected.setVersion("1.2");
+                connected.setHeartbeat(0, 0);
+                deliver(connection, connected, new byte[0]);
+            }
+            case SUBSCRIBE -> connection.subscriptions.put(frame.getSubscriptionId(), frame.getDestination());
+            case UNSUBSCRIBE -> connection.subscriptions.remove(frame.getSubscriptionId());
+            case SEND -> publish(frame.getDestination(), frame.getContentType() != null
+                    ? frame.getContentType().toString() : null, message.getPayload());
+            case DISCONNECT -> {
+                if (frame.getReceipt() != null) {
+                    StompHeaderAccessor receipt = StompHeaderAccessor.create(StompCommand.RECEIPT);
+                    receipt.setReceiptId(frame.getReceipt());
+                    deliver(connection, receipt, new byte[0]);
+                }
+                connection.close();
+            }
+            default -> {
+                // ACK/NACK/transactions are not used by the relay
+            }
+        }
+    }
+
+    private void publish(String destination, String contentType, byte[] payload) {
+        for (Connection connection : connections) {
+            connection.subscriptions.forEach((subscriptionId, subscribed) -> {
+                if (subscribed.equals(destination)) {
+                    StompHeaderAccessor frame = StompHeaderAccessor.create(StompCommand.MESSAGE);
+                    frame.setDestination(destination);
+                    frame.setSubscriptionId(subscriptionId);
+                    frame.setMessageId(String.valueOf(messageIds.incrementAndGet()));
+                    if (contentType != null) {
+                        frame.setNativeHeader(StompHeaderAccessor.STOMP_CONTENT_TYPE_HEADER, contentType);
+                    }
+                    delivered.incrementAndGet();
+                    deliver(connection, frame, payload);
+                }
+            });
+        }
+    }
+
+    private final class Connection implements TcpConnection<byte[]> {
+
+        private final TcpConnectionHandler<byte[]> handler;
+
+        private final Map<String, String> subscriptions = new ConcurrentHashMap<>();
+
+        private volatile boolean open = true;
+
+        private Connection(TcpConnectionHandler<byte[]> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public CompletableFuture<Void> sendAsync(Message<byte[]> message) {
+            if (!open) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Connection closed"));
+            }
+            receive(this, message);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void onReadInactivity(Runnable runnable, long duration) {
+            // Heartbeats are disabled (CONNECTED advertises 0,0)
+        }
+
+        @Override
+        public void onWriteInactivity(Runnable runnable, long duration) {
+        }
+
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                connections.remove(this);
+                delivery.execute(handler::afterConnectionClosed);
+            }
+        }
+    }
+}
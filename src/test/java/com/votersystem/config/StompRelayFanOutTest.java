@@ -0,0 +1,175 @@
+package com.votersystem.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.votersystem.service.LocationBroadcastService;
+
+/**
+ * Two backend nodes relaying to one (in-process) STOMP broker: location frames
+ * published on either node reach the subscribers connected to both nodes.
+ */
+class StompRelayFanOutTest {
+
+    private static final int SESSIONS_PER_NODE = 25;
+
+    private static final int MESSAGES_PER_NODE = 200;
+
+    private final InProcessStompBroker broker = new InProcessStompBroker();
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stop() {
+        nodes.forEach(node -> node.relay.stop());
+        broker.shutdownAsync();
+    }
+
+    @Test
+    void framesPublishedOnOneNodeReachSubscribersOfBothNodes() throws Exception {
+        Node nodeA = startNode("a");
+        Node nodeB = startNode("b");
+
+        for (Node node : nodes) {
+            for (int i = 0; i < SESSIONS_PER_NODE; i++) {
+                node.connectAndSubscribe(node.name + "-" + i, LocationBroadcastService.MASTER_BATCH_TOPIC);
+            }
+        }
+        // Each session subscribes once its CONNECTED has been relayed back
+        awaitTrue(() -> nodes.stream().allMatch(node -> node.connected.get() == SESSIONS_PER_NODE));
+
+        for (int i = 0; i < MESSAGES_PER_NODE; i++) {
+            nodeA.publish(LocationBroadcastService.MASTER_BATCH_TOPIC, "a:" + i);
+            nodeB.publish(LocationBroadcastService.MASTER_BATCH_TOPIC, "b:" + i);
+        }
+
+        int expectedPerSession = 2 * MESSAGES_PER_NODE;
+        awaitTrue(() -> nodes.stream().allMatch(node -> node.received.size() == SESSIONS_PER_NODE
+                && node.received.values().stream().allMatch(count -> count.get() == expectedPerSession)));
+
+        for (Node node : nodes) {
+            node.received.forEach((session, count) ->
+                    assertEquals(expectedPerSession, count.get(), "messages received by " + session));
+        }
+        assertEquals(2L * SESSIONS_PER_NODE * expectedPerSession, broker.getDeliveredCount());
+    }
+
+    @Test
+    void unsubscribedDestinationsAreNotDelivered() throws Exception {
+        Node nodeA = startNode("a");
+        Node nodeB = startNode("b");
+        nodeA.connectAndSubscribe("a-0", LocationBroadcastService.ADMIN_TOPIC_PREFIX + "9000000001/batch");
+        awaitTrue(() -> nodeA.connected.get() == 1);
+
+        nodeB.publish(LocationBroadcastService.ADMIN_TOPIC_PREFIX + "9000000002/batch", "other admin");
+        nodeB.publish(LocationBroadcastService.ADMIN_TOPIC_PREFIX + "9000000001/batch", "own admin");
+
+        // Frames are delivered in order, so a misrouted first frame would already have arrived
+        awaitTrue(() -> nodeA.received.containsKey("a-0"));
+        assertEquals(1, nodeA.received.get("a-0").get());
+    }
+
+    private Node startNode(String name) throws InterruptedException {
+        Node node = new Node(name);
+        nodes.add(node);
+        node.relay.start();
+        awaitTrue(node.relay::isBrokerAvailable);
+        return node;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+            Thread.sleep(10);
+        }
+    }
+
+    private final class Node {
+
+        private final String name;
+
+        private final StompBrokerRelayMessageHandler relay;
+
+        // Messages each client session of this node received from the broker
+        private final Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+
+        // Sessions that are connected and have sent their SUBSCRIBE
+        private final AtomicInteger connected = new AtomicInteger();
+
+        private final Map<String, String> pendingSubscriptions = new ConcurrentHashMap<>();
+
+        private Node(String name) {
+            this.name = name;
+            ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+            clientOutbound.subscribe(this::toClient);
+            relay = new StompBrokerRelayMessageHandler(new ExecutorSubscribableChannel(), clientOutbound,
+                    new ExecutorSubscribableChannel(), List.of("/topic", "/queue"));
+            relay.setTcpClient(broker);
+            relay.setSystemHeartbeatSendInterval(0);
+            relay.setSystemHeartbeatReceiveInterval(0);
+        }
+
+        private void toClient(Message<?> message) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            if (accessor.getCommand() == StompCommand.CONNECTED) {
+                subscribe(accessor.getSessionId());
+            } else if (accessor.getCommand() == StompCommand.MESSAGE) {
+                received.computeIfAbsent(accessor.getSessionId(), id -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+
+        private void connectAndSubscribe(String sessionId, String destination) {
+            pendingSubscriptions.put(sessionId, destination);
+            // Inbound frames stay mutable, as decoded client frames are
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setSessionId(sessionId);
+            connect.setAcceptVersion("1.2");
+            connect.setHeartbeat(0, 0);
+            connect.setLeaveMutable(true);
+            relay.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+        }
+
+        // Like a client, subscribe once the session's CONNECTED frame arrives
+        private void subscribe(String sessionId) {
+            String destination = pendingSubscriptions.remove(sessionId);
+            if (destination == null) {
+                return;
+            }
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setSessionId(sessionId);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(destination);
+            subscribe.setLeaveMutable(true);
+            relay.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+            connected.incrementAndGet();
+        }
+
+        // Same path as SimpMessagingTemplate.convertAndSend: a broker-channel message without a session
+        private void publish(String destination, String payload) {
+            StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+            send.setDestination(destination);
+            send.setLeaveMutable(true);
+            relay.handleMessage(MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8),
+                    send.getMessageHeaders()));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.votersystem.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.votersystem.entity.Agent;
+import com.votersystem.repository.AdministratorRepository;
+import com.votersystem.repository.AgentRepository;
+import com.votersystem.service.CustomUserDetailsService;
+import com.votersystem.service.TokenRevocationService;
+import com.votersystem.util.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Stateless and account-loading authentication against a real JwtUtil,
+ * CustomUserDetailsService and TokenRevocationService, with only the
+ * repositories mocked so that database lookups can be counted
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String MOBILE = "9876543210";
+
+    private static final int REQUESTS = 1_000;
+
+    private AdministratorRepository administratorRepository;
+
+    private AgentRepository agentRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private JwtUtil jwtUtil;
+
+    private Agent agent;
+
+    @BeforeEach
+    void setUp() {
+        administratorRepository = mock(AdministratorRepository.class);
+        agentRepository = mock(AgentRepository.class);
+        when(administratorRepository.findByMobile(anyString())).thenReturn(Optional.empty());
+
+        agent = new Agent();
+        agent.setId("AG001");
+        agent.setMobile(MOBILE);
+        agent.setPasswordHash("hash");
+        when(agentRepository.findByMobile(MOBILE)).thenReturn(Optional.of(agent));
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "voterSystemSecretKey2023VerySecureAndLongKeyForJwtTokenGeneration");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaxSize", 100);
+        jwtUtil.init();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessModeDoesNotLoadTheAccountPerRequest() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, 300_000L);
+        String token = jwtUtil.generateAgentToken(MOBILE, "AG001", "AGENT");
+
+        for (int i = 0; i < REQUESTS; i++) {
+            Authentication authentication = authenticate(filter, token);
+            assertNotNull(authentication);
+            assertEquals("ROLE_AGENT", authentication.getAuthorities().iterator().next().getAuthority());
+        }
+
+        verify(userDetailsService, times(0)).loadUserByUsername(anyString());
+        verify(agentRepository, times(1)).findByMobile(MOBILE);
+    }
+
+    @Test
+    void accountLoadingModeQueriesTheAccountPerRequestWithoutTheCache() throws Exception {
+        // Baseline for the stateless path: the original filter loaded the account on every request
+        JwtAuthenticationFilter filter = filter(false, 0L);
+        String token = jwtUtil.generateAgentToken(MOBILE, "AG001", "AGENT");
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertNotNull(authenticate(filter, token));
+        }
+
+        verify(userDetailsService, times(REQUESTS)).loadUserByUsername(MOBILE);
+        verify(agentRepository, times(REQUESTS)).findByMobile(MOBILE);
+    }
+
+    @Test
+    void statelessModeRejectsTokensIssuedBeforeRevocation() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, 300_000L);
+        String token = jwtUtil.generateAgentToken(MOBILE, "AG001", "AGENT");
+        Date issuedAt = jwtUtil.getVerifiedClaims(token).getIssuedAt();
+
+        ReflectionTestUtils.setField(agent, "tokensRevokedBefore", issuedAt.getTime() + 1_000L);
+
+        assertNull(authenticate(filter, token));
+    }
+
+    @Test
+    void statelessModeAcceptsTokensIssuedAfterRevocation() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, 300_000L);
+        String token = jwtUtil.generateAgentToken(MOBILE, "AG001", "AGENT");
+        Date issuedAt = jwtUtil.getVerifiedClaims(token).getIssuedAt();
+
+        ReflectionTestUtils.setField(agent, "tokensRevokedBefore", issuedAt.getTime() - 1_000L);
+
+        assertNotNull(authenticate(filter, token));
+    }
+
+    @Test
+    void statelessModeRejectsBlockedAccounts() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, 300_000L);
+        String token = jwtUtil.generateAgentToken(MOBILE, "AG001", "AGENT");
+        assertNotNull(authenticate(filter, token));
+
+        // Blocking publishes an AccountChangedEvent, which evicts the cached account
+        agent.setStatus(Agent.AgentStatus.BLOCKED);
+        userDetailsService.evict(MOBILE);
+
+        assertNull(authenticate(filter, token));
+    }
+
+    @Test
+    void statelessModeRejectsUnknownAccounts() throws Exception {
+        JwtAuthenticationFilter filter = filter(true, 300_000L);
+        String token = jwtUtil.generateAgentToken("9000000000", "AG404", "AGENT");
+        when(agentRepository.findByMobile("9000000000")).thenReturn(Optional.empty());
+
+        assertNull(authenticate(filter, token));
+    }
+
+    private JwtAuthenticationFilter filter(boolean stateless, long cacheTtlMillis) {
+        userDetailsService = spy(new CustomUserDetailsService());
+        ReflectionTestUtils.setField(userDetailsService, "administratorRepository", administratorRepository);
+        ReflectionTestUtils.setField(userDetailsService, "agentRepository", agentRepository);
+        ReflectionTestUtils.setField(userDetailsService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userDetailsService, "cacheTtlMillis", cacheTtlMillis);
+        ReflectionTestUtils.setField(userDetailsService, "cacheMaxSize", 100);
+        userDetailsService.registerMetrics();
+
+        TokenRevocationService tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "userDetailsService", userDetailsService);
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(filter, "stateless", stateless);
+        return filter;
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/agents");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
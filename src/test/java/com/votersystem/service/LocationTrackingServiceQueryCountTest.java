@@ -0,0 +1,155 @@
+package com.votersystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.votersystem.dto.AgentLocationResponse;
+import com.votersystem.entity.Agent;
+import com.votersystem.entity.AgentLocation;
+import com.votersystem.repository.AgentLocationRepository;
+import com.votersystem.repository.AgentRepository;
+
+/**
+ * The admin location views issue a constant number of repository queries
+ * however many agents they return: one joined projection per call, never a
+ * per-agent agent lookup
+ */
+class LocationTrackingServiceQueryCountTest {
+
+    private final AgentLocationRepository agentLocationRepository = mock(AgentLocationRepository.class);
+
+    private final AgentRepository agentRepository = mock(AgentRepository.class);
+
+    private final LocationWriteBehindService locationWriteBehindService = mock(LocationWriteBehindService.class);
+
+    private final LocationSpatialIndex locationSpatialIndex = mock(LocationSpatialIndex.class);
+
+    private LocationTrackingService service() {
+        LocationTrackingService service = new LocationTrackingService();
+        ReflectionTestUtils.setField(service, "agentLocationRepository", agentLocationRepository);
+        ReflectionTestUtils.setField(service, "agentRepository", agentRepository);
+        ReflectionTestUtils.setField(service, "locationWriteBehindService", locationWriteBehindService);
+        ReflectionTestUtils.setField(service, "locationSpatialIndex", locationSpatialIndex);
+        return service;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    void locationListsUseOneQueryPerCall(int agents) {
+        List<String> ids = agentIds(agents);
+        List<AgentLocationResponse> responses = responses(ids);
+        when(agentLocationRepository.findAllCurrentLocationResponses()).thenReturn(responses);
+        when(agentLocationRepository.findCurrentLocationResponsesByAgentIds(ids)).thenReturn(responses);
+        when(agentLocationRepository.findAllOnlineLocationResponses()).thenReturn(responses);
+        when(agentLocationRepository.findOnlineLocationResponsesByAgentIds(ids)).thenReturn(responses);
+
+        LocationTrackingService service = service();
+        assertEquals(agents, service.getAllCurrentLocations().size());
+        assertEquals(agents, service.getCurrentLocationsByAgentIds(ids).size());
+        assertEquals(agents, service.getOnlineAgents().size());
+        assertEquals(agents, service.getOnlineAgentsByIds(ids).size());
+
+        verify(agentLocationRepository, times(1)).findAllCurrentLocationResponses();
+        verify(agentLocationRepository, times(1)).findCurrentLocationResponsesByAgentIds(ids);
+        verify(agentLocationRepository, times(1)).findAllOnlineLocationResponses();
+        verify(agentLocationRepository, times(1)).findOnlineLocationResponsesByAgentIds(ids);
+        verifyNoInteractions(agentRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000, 10_000})
+    void spatialSearchLoadsAgentsMissingFromMemoryInOneQuery(int agents) {
+        List<String> ids = agentIds(agents);
+        List<String> inMemory = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            (i % 2 == 0 ? inMemory : missing).add(ids.get(i));
+        }
+        when(locationSpatialIndex.findWithinRadius(anyDouble(), anyDouble(), anyDouble())).thenReturn(ids);
+        Set<String> cached = new HashSet<>(inMemory);
+        when(locationWriteBehindService.getLatest(anyString())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            return cached.contains(id) ? Optional.of(location(id)) : Optional.empty();
+        });
+        when(locationWriteBehindService.getAgentProfile(anyString()))
+                .thenAnswer(invocation -> Optional.of(agent(invocation.getArgument(0))));
+        when(agentLocationRepository.findCurrentLocationResponsesByAgentIds(missing)).thenReturn(responses(missing));
+
+        List<AgentLocationResponse> nearby = service().findAgentsNearby(23.0, 77.0, 50, null);
+
+        assertEquals(agents, nearby.size());
+        assertEquals(ids, nearby.stream().map(AgentLocationResponse::getAgentId).toList());
+        verify(agentLocationRepository, times(1)).findCurrentLocationResponsesByAgentIds(anyList());
+        verifyNoInteractions(agentRepository);
+    }
+
+    /**
+     * Each projection is a single JPQL statement joining the agent, not a lazy association
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"findAllCurrentLocationResponses", "findCurrentLocationResponsesByAgentIds",
+                            "findAllOnlineLocationResponses", "findOnlineLocationResponsesByAgentIds"})
+    void projectionsJoinAgentInOneStatement(String methodName) {
+        Method method = findMethod(methodName);
+        String jpql = method.getAnnotation(Query.class).value();
+        assertTrue(jpql.startsWith("SELECT new com.votersystem.dto.AgentLocationResponse(al, a)"), jpql);
+        assertTrue(jpql.contains("JOIN Agent a ON a.id = al.agentId"), jpql);
+    }
+
+    private static Method findMethod(String name) {
+        for (Method method : AgentLocationRepository.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new AssertionError("No repository method " + name);
+    }
+
+    private static List<String> agentIds(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(String.format("AG%06d", i));
+        }
+        return ids;
+    }
+
+    private static List<AgentLocationResponse> responses(List<String> ids) {
+        List<AgentLocationResponse> responses = new ArrayList<>();
+        for (String id : ids) {
+            responses.add(AgentLocationResponse.from(location(id), agent(id)));
+        }
+        return responses;
+    }
+
+    private static AgentLocation location(String agentId) {
+        return new AgentLocation(agentId, 23.0, 77.0);
+    }
+
+    private static Agent agent(String agentId) {
+        Agent agent = new Agent();
+        agent.setId(agentId);
+        agent.setFirstName("Agent");
+        agent.setLastName(agentId);
+        return agent;
+    }
+}
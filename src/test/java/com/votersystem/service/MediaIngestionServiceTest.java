@@ -0,0 +1,293 @@
+package com.votersystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.votersystem.entity.Issue;
+import com.votersystem.entity.IssueAttachment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Batched staging, ingestion job processing and stale-attachment sweeping against the
+ * LocalMediaStorage stand-in, with the job tables replaced by a recording
+ * JdbcTemplate
+ */
+class MediaIngestionServiceTest {
+
+    private static final long JOB_ID = 7L;
+
+    private static final long ATTACHMENT_ID = 42L;
+
+    @TempDir
+    Path tempDir;
+
+    private RecordingJdbcTemplate jdbc;
+
+    private MediaIngestionService service;
+
+    private Path storageDir;
+
+    private Path staged;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storageDir = tempDir.resolve("media");
+        staged = Files.write(tempDir.resolve("staged.mp4"), new byte[] {1, 2, 3, 4});
+
+        LocalMediaStorage storage = new LocalMediaStorage();
+        ReflectionTestUtils.setField(storage, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(storage, "baseUrl", "http://media.local");
+
+        jdbc = new RecordingJdbcTemplate();
+        service = new MediaIngestionService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(service, "mediaStorage", storage);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "nodeId", "node-a");
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(service, "retryMaxSeconds", 3600L);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 900);
+        ReflectionTestUtils.setField(service, "pollBatchSize", 50);
+        ReflectionTestUtils.setField(service, "staleAfterHours", 24);
+    }
+
+    @Test
+    void processStoresStagedFileAndMarksAttachmentReady() throws Exception {
+        jdbc.job = job(1);
+
+        ReflectionTestUtils.invokeMethod(service, "process", JOB_ID);
+
+        Path stored = storageDir.resolve("issues/videos/staged.mp4");
+        assertTrue(Files.exists(stored));
+        assertEquals(4, Files.size(stored));
+        assertFalse(Files.exists(staged));
+
+        Object[] ready = jdbc.argsOf("UPDATE issue_attachments SET file_url");
+        assertEquals("http://media.local/issues/videos/staged.mp4", ready[0]);
+        assertEquals("issues/videos/staged.mp4", ready[1]);
+        assertEquals(ATTACHMENT_ID, ready[2]);
+        assertTrue(jdbc.executed("DELETE FROM media_ingestion_jobs"));
+    }
+
+    @Test
+    void failedStoreIsRetriedAndFailsAfterLastAttempt() throws Exception {
+        // A file where the storage directory should be makes every store fail
+        Files.write(storageDir, new byte[0]);
+
+        jdbc.job = job(1);
+        ReflectionTestUtils.invokeMethod(service, "process", JOB_ID);
+        assertTrue(jdbc.executed("UPDATE media_ingestion_jobs SET status = 'PENDING'"));
+        assertFalse(jdbc.executed("UPDATE issue_attachments SET upload_status = 'FAILED'"));
+        assertTrue(Files.exists(staged));
+
+        jdbc.statements.clear();
+        jdbc.job = job(3);
+        ReflectionTestUtils.invokeMethod(service, "process", JOB_ID);
+        assertTrue(jdbc.executed("UPDATE issue_attachments SET upload_status = 'FAILED'"));
+        assertTrue(jdbc.executed("UPDATE media_ingestion_jobs SET status = 'FAILED'"));
+        assertFalse(Files.exists(staged));
+    }
+
+    @Test
+    void sweeperFailsStalePendingAttachmentsOfAnyNode() throws Exception {
+        Path otherNodeFile = Files.write(tempDir.resolve("other.mp4"), new byte[] {1});
+        jdbc.staleJobs.add(staleJob(1L, 10L, "node-a", staged));
+        jdbc.staleJobs.add(staleJob(2L, 20L, "node-gone", otherNodeFile));
+
+        service.sweepStaleAttachments();
+
+        List<Object[]> failed = jdbc.allArgsOf("UPDATE issue_attachments SET upload_status = 'FAILED' WHERE id");
+        assertEquals(2, failed.size());
+        assertEquals(10L, failed.get(0)[0]);
+        assertEquals(20L, failed.get(1)[0]);
+        assertTrue(jdbc.executed("UPDATE issue_attachments a SET a.upload_status = 'FAILED'"));
+        // Only files staged on this node are reachable and cleaned up
+        assertFalse(Files.exists(staged));
+        assertTrue(Files.exists(otherNodeFile));
+    }
+
+    @Test
+    void stageAllWritesAttachmentsAndJobsInOneBatch() throws Exception {
+        IssueAttachmentService attachmentService = new IssueAttachmentService() {
+            @Override
+            public List<IssueAttachment> createAttachments(List<IssueAttachment> attachments) {
+                jdbc.attachmentBatches.add(attachments.size());
+                long id = 100;
+                for (IssueAttachment attachment : attachments) {
+                    attachment.setId(id++);
+                }
+                return attachments;
+            }
+        };
+        List<Object> events = new ArrayList<>();
+        ReflectionTestUtils.setField(service, "attachmentService", attachmentService);
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(service, "stagingDir", tempDir.resolve("staging").toString());
+
+        Issue issue = new Issue();
+        issue.setTicketNumber("T-1");
+        List<MediaIngestionService.MediaFile> files = List.of(
+                mediaFile("a.jpg", "image/jpeg", IssueAttachment.FileType.IMAGE),
+                mediaFile("b.jpg", "image/jpeg", IssueAttachment.FileType.IMAGE),
+                mediaFile("c.mp4", "video/mp4", IssueAttachment.FileType.VIDEO));
+
+        List<IssueAttachment> staged = service.stageAll(issue, files, "AG1");
+
+        assertEquals(3, staged.size());
+        assertTrue(staged.stream().allMatch(a -> a.getUploadStatus() == IssueAttachment.UploadStatus.PENDING));
+        assertEquals(List.of(3), jdbc.attachmentBatches);
+        assertEquals(1, jdbc.jobBatches.size());
+        List<Object[]> jobs = jdbc.jobBatches.get(0);
+        assertEquals(List.of(100L, 101L, 102L), jobs.stream().map(job -> job[0]).toList());
+        assertEquals(List.of("image", "image", "video"), jobs.stream().map(job -> job[4]).toList());
+        assertTrue(jobs.stream().allMatch(job -> Files.exists(Path.of((String) job[2]))));
+
+        assertEquals(1, events.size());
+        assertEquals(List.of(1L, 2L, 3L), ((MediaStagedEvent) events.get(0)).getJobIds());
+    }
+
+    @Test
+    void startupRequiresStableNodeId() {
+        ReflectionTestUtils.setField(service, "nodeId", "");
+        assertThrows(IllegalStateException.class, service::init);
+    }
+
+    private static MediaIngestionService.MediaFile mediaFile(String name, String contentType,
+                                                             IssueAttachment.FileType fileType) {
+        return new MediaIngestionService.MediaFile(
+                new MockMultipartFile("files", name, contentType, new byte[] {1, 2, 3}), fileType);
+    }
+
+    private Map<String, Object> job(int attempts) {
+        Map<String, Object> job = new HashMap<>();
+        job.put("attachment_id", ATTACHMENT_ID);
+        job.put("staged_path", staged.toString());
+        job.put("folder", "issues/videos");
+        job.put("resource_type", "video");
+        job.put("attempts", attempts);
+        job.put("upload_offset", 0L);
+        return job;
+    }
+
+    private static Map<String, Object> staleJob(long id, long attachmentId, String nodeId, Path stagedPath) {
+        Map<String, Object> job = new HashMap<>();
+        job.put("id", id);
+        job.put("attachment_id", attachmentId);
+        job.put("node_id", nodeId);
+        job.put("staged_path", stagedPath.toString());
+        return job;
+    }
+
+    /**
+     * Answers the ingestion queries with a single claimable job and records every statement
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        final List<Map.Entry<String, Object[]>> statements = new ArrayList<>();
+
+        final List<Map<String, Object>> staleJobs = new ArrayList<>();
+
+        final List<Integer> attachmentBatches = new ArrayList<>();
+
+        final List<List<Object[]>> jobBatches = new ArrayList<>();
+
+        Map<String, Object> job;
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(Map.entry(sql, args));
+            return 1;
+        }
+
+        @Override
+        public int[] batchUpdate(PreparedStatementCreator psc, BatchPreparedStatementSetter pss,
+                                 KeyHolder generatedKeyHolder) {
+            List<Object[]> rows = new ArrayList<>();
+            int[] counts = new int[pss.getBatchSize()];
+            for (int i = 0; i < pss.getBatchSize(); i++) {
+                Object[] row = new Object[5];
+                PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                            if (method.getName().startsWith("set")) {
+                                row[(Integer) args[0] - 1] = args[1];
+                            }
+                            return null;
+                        });
+                try {
+                    pss.setValues(ps, i);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                rows.add(row);
+                generatedKeyHolder.getKeyList().add(Map.of("GENERATED_KEY", (long) (i + 1)));
+                counts[i] = 1;
+            }
+            jobBatches.add(rows);
+            return counts;
+        }
+
+        @Override
+        public Map<String, Object> queryForMap(String sql, Object... args) {
+            statements.add(Map.entry(sql, args));
+            return job;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            statements.add(Map.entry(sql, args));
+            return (T) Integer.valueOf(1);
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            statements.add(Map.entry(sql, args));
+            return staleJobs;
+        }
+
+        boolean executed(String sqlPrefix) {
+            return !allArgsOf(sqlPrefix).isEmpty();
+        }
+
+        Object[] argsOf(String sqlPrefix) {
+            List<Object[]> args = allArgsOf(sqlPrefix);
+            assertEquals(1, args.size(), sqlPrefix);
+            return args.get(0);
+        }
+
+        List<Object[]> allArgsOf(String sqlPrefix) {
+            List<Object[]> args = new ArrayList<>();
+            for (Map.Entry<String, Object[]> statement : statements) {
+                if (statement.getKey().startsWith(sqlPrefix)) {
+                    args.add(statement.getValue());
+                }
+            }
+            return args;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.votersystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.votersystem.util.BusinessCalendar;
+
+/**
+ * Concurrency test of ticket number allocation from reserved blocks, with the
+ * shared per-year counter stubbed by an AtomicLong
+ */
+class TicketGenerationServiceTest {
+
+    private static final int TICKETS = 10_000;
+
+    private static final int THREADS = 32;
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    private TicketGenerationService newService(int blockSize) {
+        TicketSequenceService sequenceService = mock(TicketSequenceService.class);
+        when(sequenceService.reserveBlock(eq(2025), anyInt())).thenAnswer(invocation -> {
+            int size = invocation.getArgument(1);
+            reservations.incrementAndGet();
+            return counter.getAndAdd(size) + 1;
+        });
+        BusinessCalendar calendar = mock(BusinessCalendar.class);
+        when(calendar.today()).thenReturn(LocalDate.of(2025, 6, 1));
+
+        TicketGenerationService service = new TicketGenerationService();
+        ReflectionTestUtils.setField(service, "ticketSequenceService", sequenceService);
+        ReflectionTestUtils.setField(service, "businessCalendar", calendar);
+        ReflectionTestUtils.setField(service, "blockSize", blockSize);
+        return service;
+    }
+
+    @Test
+    void concurrentTicketsAreUniqueAndWellFormed() throws Exception {
+        TicketGenerationService service = newService(100);
+
+        Set<String> tickets = generateConcurrently(service);
+
+        assertEquals(TICKETS, tickets.size());
+        for (String ticket : tickets) {
+            assertTrue(service.isValidTicketFormat(ticket), ticket);
+            assertEquals("2025", service.extractYearFromTicket(ticket));
+        }
+        // Every reserved number was handed out: no block was wasted by a racing refill
+        assertEquals(TICKETS / 100, reservations.get());
+    }
+
+    @Test
+    void smallBlocksRefillWithoutDuplicates() throws Exception {
+        TicketGenerationService service = newService(7);
+
+        Set<String> tickets = generateConcurrently(service);
+
+        assertEquals(TICKETS, tickets.size());
+        assertEquals((TICKETS + 6) / 7, reservations.get());
+        for (String ticket : tickets) {
+            long sequence = Long.parseLong(service.extractSequenceFromTicket(ticket));
+            assertTrue(sequence >= 1 && sequence <= counter.get(), ticket);
+        }
+    }
+
+    private Set<String> generateConcurrently(TicketGenerationService service) throws Exception {
+        Set<String> tickets = ConcurrentHashMap.newKeySet();
+        AtomicInteger remaining = new AtomicInteger(TICKETS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    while (remaining.getAndDecrement() > 0) {
+                        tickets.add(service.generateTicketNumber());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return tickets;
+    }
+}
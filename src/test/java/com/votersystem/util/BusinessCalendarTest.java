@@ -0,0 +1,132 @@
+package com.votersystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.votersystem.repository.IssueRepository;
+import com.votersystem.repository.TransactionRepository;
+import com.votersystem.repository.UserRepository;
+
+/**
+ * Business-day windows for an IST business zone on a UTC server, and the
+ * time-window repository queries that use them
+ */
+class BusinessCalendarTest {
+
+    private static final ZoneId IST = ZoneId.of("Asia/Kolkata");
+
+    private static final Pattern WRAPPED_COLUMN = Pattern.compile("\\b(DATE|YEAR|MONTH|DAY)\\s*\\(");
+
+    private BusinessCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new BusinessCalendar();
+        ReflectionTestUtils.setField(calendar, "businessTimeZone", "Asia/Kolkata");
+        ReflectionTestUtils.setField(calendar, "storageTimeZone", "UTC");
+        calendar.init();
+    }
+
+    @Test
+    void dayStartsAndEndsAtBusinessMidnight() {
+        TimeWindow window = calendar.day(LocalDate.of(2024, 3, 1));
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 18, 30), window.getStart());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 18, 30), window.getEnd());
+    }
+
+    @Test
+    void windowIsHalfOpen() {
+        TimeWindow window = calendar.day(LocalDate.of(2024, 3, 1));
+
+        assertTrue(window.contains(window.getStart()));
+        assertTrue(window.contains(window.getEnd().minusNanos(1)));
+        assertFalse(window.contains(window.getStart().minusNanos(1)));
+        assertFalse(window.contains(window.getEnd()));
+        assertFalse(window.contains(null));
+    }
+
+    @Test
+    void consecutiveDaysTileWithoutGapOrOverlap() {
+        TimeWindow first = calendar.day(LocalDate.of(2024, 3, 31));
+        TimeWindow second = calendar.day(LocalDate.of(2024, 4, 1));
+
+        assertEquals(first.getEnd(), second.getStart());
+    }
+
+    @Test
+    void storedTimeIsAssignedToItsBusinessDay() {
+        // 18:29 UTC on 31 March is still 23:59 IST that day; 18:30 UTC is already 1 April in IST
+        assertEquals(LocalDate.of(2024, 3, 31), calendar.dayOf(LocalDateTime.of(2024, 3, 31, 18, 29, 59)));
+        assertEquals(LocalDate.of(2024, 4, 1), calendar.dayOf(LocalDateTime.of(2024, 3, 31, 18, 30)));
+        // Early-morning IST payments fall on the previous UTC date
+        assertEquals(LocalDate.of(2024, 4, 1), calendar.dayOf(LocalDateTime.of(2024, 3, 31, 20, 0)));
+    }
+
+    @Test
+    void yearBoundaryFollowsBusinessZone() {
+        TimeWindow window = calendar.day(LocalDate.of(2025, 1, 1));
+
+        assertEquals(LocalDateTime.of(2024, 12, 31, 18, 30), window.getStart());
+        assertTrue(window.contains(LocalDateTime.of(2024, 12, 31, 19, 0)));
+    }
+
+    @Test
+    void currentMonthCoversWholeBusinessMonth() {
+        LocalDate firstDay = LocalDate.now(IST).withDayOfMonth(1);
+        TimeWindow month = calendar.currentMonthWindow();
+
+        assertEquals(calendar.day(firstDay).getStart(), month.getStart());
+        assertEquals(calendar.day(firstDay.plusMonths(1)).getStart(), month.getEnd());
+        assertTrue(month.contains(calendar.todayWindow().getStart()));
+    }
+
+    @Test
+    void offsetConvertsStorageToBusinessWallTime() {
+        assertEquals(5 * 3600 + 30 * 60, calendar.storageToBusinessOffsetSeconds());
+    }
+
+    @Test
+    void repositoryFiltersCompareTheBareColumn() {
+        int windowQueries = 0;
+        for (Class<?> repository : List.of(UserRepository.class, TransactionRepository.class, IssueRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query == null) {
+                    continue;
+                }
+                String where = whereClause(query.value());
+                assertFalse(WRAPPED_COLUMN.matcher(where).find(), method.getName() + ": " + where);
+                if (method.getName().contains("InWindow")) {
+                    windowQueries++;
+                    assertTrue(where.matches(".*\\.\\w+ >= :start AND \\w+\\.\\w+ < :end.*"),
+                            method.getName() + ": " + where);
+                }
+            }
+        }
+        assertEquals(11, windowQueries);
+    }
+
+    private static String whereClause(String jpql) {
+        int start = jpql.indexOf(" WHERE ");
+        if (start < 0) {
+            return "";
+        }
+        String where = jpql.substring(start + 7);
+        int groupBy = where.indexOf(" GROUP BY ");
+        return groupBy >= 0 ? where.substring(0, groupBy) : where;
+    }
+}